@@ -0,0 +1,647 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements the ADT dictionary by using a B+ tree.
+   The dictionary is sorted and has distinct search keys.
+   Notes: Each node holds up to maxKeys keys in an array, so a search
+          reads a few wide nodes, one per level, instead of one node per
+          comparison as in a binary search tree. All entries are in the
+          leaves, and the leaves are linked in key order.
+          A search, add, or remove takes O(log n) time.
+          The key iterators return keys in sorted order. A range
+          iterator starts with one search and then walks the leaves,
+          so traversing k entries takes O(log n + k) time.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class BPlusTreeDictionary<K extends Comparable<? super K>, V>
+       implements DictionaryInterface<K, V>
+{
+   private Node<K, V> root;          // A leaf when the tree has one level
+   private Leaf<K, V> firstLeaf;     // Leaf with the smallest keys
+   private int numberOfEntries;
+   private final int maxKeys;        // Max keys per node
+   private final int minKeys;        // Min keys per node other than the root
+   private static final int DEFAULT_MAX_KEYS = 64;
+   private static final int MIN_MAX_KEYS = 3;
+
+   // Results of the recursive add:
+   private K promotedKey;            // Separates a split node from its new sibling
+   private V replacedValue;          // Value that add replaced, or null
+
+   public BPlusTreeDictionary()
+   {
+      this(DEFAULT_MAX_KEYS);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param maxKeys  The maximum number of keys in a node; at least 3. */
+   public BPlusTreeDictionary(int maxKeys)
+   {
+      if (maxKeys < MIN_MAX_KEYS)
+         throw new IllegalArgumentException("A node must hold at least " +
+                                            MIN_MAX_KEYS + " keys.");
+      this.maxKeys = maxKeys;
+      minKeys = maxKeys / 2;
+      clear();
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      replacedValue = null;
+      Node<K, V> newSibling = insert(root, key, value);
+      if (newSibling != null)
+      { // Root split; grow a new root
+         Internal<K, V> newRoot = new Internal<>(maxKeys);
+         newRoot.keys[0] = promotedKey;
+         newRoot.children[0] = root;
+         newRoot.children[1] = newSibling;
+         newRoot.size = 1;
+         root = newRoot;
+      } // end if
+
+      V result = replacedValue;
+      replacedValue = null;
+      promotedKey = null;
+      return result;
+   } // end add
+
+   public V remove(K key)
+   {
+      V removedValue = delete(root, key);
+      if ((root.size == 0) && (root instanceof Internal))
+         root = ((Internal<K, V>)root).children[0]; // Root has one child; shrink tree
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      Leaf<K, V> leaf = findLeaf(key);
+      int index = leaf.indexOf(key);
+      if (index >= 0)
+         return leaf.values[index];
+      else
+         return null;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return findLeaf(key).indexOf(key) >= 0;
+   } // end contains
+
+   /** Creates an iterator that traverses all search keys in this dictionary
+       in ascending order.
+       @return  An iterator that provides sequential access to the search
+                keys in the dictionary. */
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator(firstLeaf, 0, null);
+   } // end getKeyIterator
+
+   /** Creates an iterator that traverses all values in this dictionary
+       in the ascending order of their search keys.
+       @return  An iterator that provides sequential access to the values
+                in this dictionary. */
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator(firstLeaf, 0, null);
+   } // end getValueIterator
+
+   /** Creates an iterator that traverses, in ascending order, the search
+       keys in a range.
+       @param from  The smallest key in the range.
+       @param to    The key just beyond the range; it is not included.
+       @return  An iterator over the keys k such that from <= k < to. */
+   public Iterator<K> getKeyIterator(K from, K to)
+   {
+      Leaf<K, V> leaf = findLeaf(from);
+      return new KeyIterator(leaf, leaf.ceilingIndex(from), to);
+   } // end getKeyIterator
+
+   /** Creates an iterator that traverses the values whose search keys are
+       in a range, in ascending order of the keys.
+       @param from  The smallest key in the range.
+       @param to    The key just beyond the range; it is not included.
+       @return  An iterator over the values of the keys k such that
+                from <= k < to. */
+   public Iterator<V> getValueIterator(K from, K to)
+   {
+      Leaf<K, V> leaf = findLeaf(from);
+      return new ValueIterator(leaf, leaf.ceilingIndex(from), to);
+   } // end getValueIterator
+
+   /** Gets the greatest search key that is less than or equal to a given key.
+       @param key  A search key.
+       @return  Either the greatest key <= key, or null if there is none. */
+   public K floor(K key)
+   {
+      // Remember the subtree just left of the search path; its largest
+      // key is the floor if the leaf has no key <= key
+      Node<K, V> leftSubtree = null;
+      Node<K, V> node = root;
+      while (node instanceof Internal)
+      {
+         Internal<K, V> internal = (Internal<K, V>)node;
+         int childIndex = internal.childIndexOf(key);
+         if (childIndex > 0)
+            leftSubtree = internal.children[childIndex - 1];
+         node = internal.children[childIndex];
+      } // end while
+
+      int index = node.ceilingIndex(key);
+      if ((index < node.size) && (node.keys[index].compareTo(key) == 0))
+         return node.keys[index];
+      else if (index > 0)
+         return node.keys[index - 1];
+      else if (leftSubtree != null)
+         return getLastKey(leftSubtree);
+      else
+         return null;
+   } // end floor
+
+   /** Gets the smallest search key that is greater than or equal to a given key.
+       @param key  A search key.
+       @return  Either the smallest key >= key, or null if there is none. */
+   public K ceiling(K key)
+   {
+      Leaf<K, V> leaf = findLeaf(key);
+      int index = leaf.ceilingIndex(key);
+      if (index < leaf.size)
+         return leaf.keys[index];
+      else if (leaf.next != null)
+         return leaf.next.keys[0]; // All keys in later leaves are > key
+      else
+         return null;
+   } // end ceiling
+
+   /** Gets the smallest search key in this dictionary.
+       @return  Either the smallest key, or null if the dictionary is empty. */
+   public K getFirstKey()
+   {
+      if (isEmpty())
+         return null;
+      else
+         return firstLeaf.keys[0];
+   } // end getFirstKey
+
+   /** Gets the greatest search key in this dictionary.
+       @return  Either the greatest key, or null if the dictionary is empty. */
+   public K getLastKey()
+   {
+      if (isEmpty())
+         return null;
+      else
+         return getLastKey(root);
+   } // end getLastKey
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      firstLeaf = new Leaf<>(maxKeys);
+      root = firstLeaf;
+      numberOfEntries = 0;
+   } // end clear
+
+   // Returns the leaf whose range of keys includes key.
+   private Leaf<K, V> findLeaf(K key)
+   {
+      Node<K, V> node = root;
+      while (node instanceof Internal)
+      {
+         Internal<K, V> internal = (Internal<K, V>)node;
+         node = internal.children[internal.childIndexOf(key)];
+      } // end while
+
+      return (Leaf<K, V>)node;
+   } // end findLeaf
+
+   // Returns the greatest key in a nonempty subtree.
+   private K getLastKey(Node<K, V> node)
+   {
+      while (node instanceof Internal)
+         node = ((Internal<K, V>)node).children[node.size];
+
+      return node.keys[node.size - 1];
+   } // end getLastKey
+
+   // Adds an entry to the subtree rooted at node. If node splits, returns
+   // its new right sibling and sets promotedKey; otherwise returns null.
+   // Sets replacedValue if key was already present.
+   private Node<K, V> insert(Node<K, V> node, K key, V value)
+   {
+      if (node instanceof Leaf)
+      {
+         Leaf<K, V> leaf = (Leaf<K, V>)node;
+         int index = leaf.ceilingIndex(key);
+         if ((index < leaf.size) && (leaf.keys[index].compareTo(key) == 0))
+         { // Key found; replace its value
+            replacedValue = leaf.values[index];
+            leaf.values[index] = value;
+            return null;
+         } // end if
+
+         leaf.insertAt(index, key, value);
+         numberOfEntries++;
+         if (leaf.size > maxKeys)
+            return splitLeaf(leaf);
+         else
+            return null;
+      }
+      else
+      {
+         Internal<K, V> internal = (Internal<K, V>)node;
+         int childIndex = internal.childIndexOf(key);
+         Node<K, V> newChild = insert(internal.children[childIndex], key, value);
+         if (newChild == null)
+            return null;
+
+         internal.insertAt(childIndex, promotedKey, newChild);
+         if (internal.size > maxKeys)
+            return splitInternal(internal);
+         else
+            return null;
+      } // end if
+   } // end insert
+
+   // Moves the upper half of an overfull leaf to a new leaf.
+   private Leaf<K, V> splitLeaf(Leaf<K, V> leaf)
+   {
+      Leaf<K, V> sibling = new Leaf<>(maxKeys);
+      int leftSize = leaf.size / 2;
+      int rightSize = leaf.size - leftSize;
+      System.arraycopy(leaf.keys, leftSize, sibling.keys, 0, rightSize);
+      System.arraycopy(leaf.values, leftSize, sibling.values, 0, rightSize);
+      clearSlots(leaf, leftSize, leaf.size);
+      leaf.size = leftSize;
+      sibling.size = rightSize;
+
+      sibling.next = leaf.next;
+      leaf.next = sibling;
+      promotedKey = sibling.keys[0];
+      return sibling;
+   } // end splitLeaf
+
+   // Moves the keys and children above the middle key of an overfull
+   // internal node to a new node, and promotes the middle key.
+   private Internal<K, V> splitInternal(Internal<K, V> internal)
+   {
+      Internal<K, V> sibling = new Internal<>(maxKeys);
+      int middle = internal.size / 2;
+      int rightSize = internal.size - middle - 1;
+      promotedKey = internal.keys[middle];
+      System.arraycopy(internal.keys, middle + 1, sibling.keys, 0, rightSize);
+      System.arraycopy(internal.children, middle + 1, sibling.children, 0, rightSize + 1);
+      for (int index = middle + 1; index <= internal.size; index++)
+         internal.children[index] = null;
+      clearSlots(internal, middle, internal.size);
+      internal.size = middle;
+      sibling.size = rightSize;
+      return sibling;
+   } // end splitInternal
+
+   // Removes key from the subtree rooted at node, and returns its value or
+   // null. A child left with too few keys borrows from or merges with a sibling.
+   private V delete(Node<K, V> node, K key)
+   {
+      if (node instanceof Leaf)
+      {
+         Leaf<K, V> leaf = (Leaf<K, V>)node;
+         int index = leaf.indexOf(key);
+         if (index < 0)
+            return null;
+
+         V removedValue = leaf.values[index];
+         leaf.removeAt(index);
+         numberOfEntries--;
+         return removedValue;
+      }
+      else
+      {
+         Internal<K, V> internal = (Internal<K, V>)node;
+         int childIndex = internal.childIndexOf(key);
+         V removedValue = delete(internal.children[childIndex], key);
+         if ((removedValue != null) && (internal.children[childIndex].size < minKeys))
+            rebalance(internal, childIndex);
+         return removedValue;
+      } // end if
+   } // end delete
+
+   // Restores the minimum number of keys in parent's child at childIndex.
+   private void rebalance(Internal<K, V> parent, int childIndex)
+   {
+      if ((childIndex > 0) && (parent.children[childIndex - 1].size > minKeys))
+         borrowFromLeft(parent, childIndex);
+      else if ((childIndex < parent.size) && (parent.children[childIndex + 1].size > minKeys))
+         borrowFromRight(parent, childIndex);
+      else if (childIndex > 0)
+         merge(parent, childIndex - 1);
+      else
+         merge(parent, childIndex);
+   } // end rebalance
+
+   private void borrowFromLeft(Internal<K, V> parent, int childIndex)
+   {
+      Node<K, V> child = parent.children[childIndex];
+      Node<K, V> left = parent.children[childIndex - 1];
+      if (child instanceof Leaf)
+      {
+         Leaf<K, V> leftLeaf = (Leaf<K, V>)left;
+         int last = leftLeaf.size - 1;
+         ((Leaf<K, V>)child).insertAt(0, leftLeaf.keys[last], leftLeaf.values[last]);
+         leftLeaf.removeAt(last);
+         parent.keys[childIndex - 1] = child.keys[0];
+      }
+      else
+      { // Rotate through the parent's separating key
+         Internal<K, V> leftInternal = (Internal<K, V>)left;
+         Internal<K, V> childInternal = (Internal<K, V>)child;
+         System.arraycopy(childInternal.keys, 0, childInternal.keys, 1, childInternal.size);
+         System.arraycopy(childInternal.children, 0, childInternal.children, 1, childInternal.size + 1);
+         childInternal.keys[0] = parent.keys[childIndex - 1];
+         childInternal.children[0] = leftInternal.children[leftInternal.size];
+         childInternal.size++;
+
+         parent.keys[childIndex - 1] = leftInternal.keys[leftInternal.size - 1];
+         leftInternal.children[leftInternal.size] = null;
+         leftInternal.keys[leftInternal.size - 1] = null;
+         leftInternal.size--;
+      } // end if
+   } // end borrowFromLeft
+
+   private void borrowFromRight(Internal<K, V> parent, int childIndex)
+   {
+      Node<K, V> child = parent.children[childIndex];
+      Node<K, V> right = parent.children[childIndex + 1];
+      if (child instanceof Leaf)
+      {
+         Leaf<K, V> rightLeaf = (Leaf<K, V>)right;
+         ((Leaf<K, V>)child).insertAt(child.size, rightLeaf.keys[0], rightLeaf.values[0]);
+         rightLeaf.removeAt(0);
+         parent.keys[childIndex] = rightLeaf.keys[0];
+      }
+      else
+      { // Rotate through the parent's separating key
+         Internal<K, V> rightInternal = (Internal<K, V>)right;
+         Internal<K, V> childInternal = (Internal<K, V>)child;
+         childInternal.keys[childInternal.size] = parent.keys[childIndex];
+         childInternal.children[childInternal.size + 1] = rightInternal.children[0];
+         childInternal.size++;
+
+         parent.keys[childIndex] = rightInternal.keys[0];
+         int rightSize = rightInternal.size;
+         System.arraycopy(rightInternal.keys, 1, rightInternal.keys, 0, rightSize - 1);
+         System.arraycopy(rightInternal.children, 1, rightInternal.children, 0, rightSize);
+         rightInternal.keys[rightSize - 1] = null;
+         rightInternal.children[rightSize] = null;
+         rightInternal.size--;
+      } // end if
+   } // end borrowFromRight
+
+   // Merges parent's child at index + 1 into its child at index.
+   private void merge(Internal<K, V> parent, int index)
+   {
+      Node<K, V> left = parent.children[index];
+      Node<K, V> right = parent.children[index + 1];
+      if (left instanceof Leaf)
+      {
+         Leaf<K, V> leftLeaf = (Leaf<K, V>)left;
+         Leaf<K, V> rightLeaf = (Leaf<K, V>)right;
+         System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.size, rightLeaf.size);
+         System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.size, rightLeaf.size);
+         leftLeaf.size = leftLeaf.size + rightLeaf.size;
+         leftLeaf.next = rightLeaf.next;
+      }
+      else
+      { // The parent's separating key moves down between the two halves
+         Internal<K, V> leftInternal = (Internal<K, V>)left;
+         Internal<K, V> rightInternal = (Internal<K, V>)right;
+         leftInternal.keys[leftInternal.size] = parent.keys[index];
+         System.arraycopy(rightInternal.keys, 0, leftInternal.keys, leftInternal.size + 1, rightInternal.size);
+         System.arraycopy(rightInternal.children, 0, leftInternal.children, leftInternal.size + 1, rightInternal.size + 1);
+         leftInternal.size = leftInternal.size + 1 + rightInternal.size;
+      } // end if
+
+      // Remove the separating key and the right child from parent
+      System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 1);
+      System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - index - 1);
+      parent.keys[parent.size - 1] = null;
+      parent.children[parent.size] = null;
+      parent.size--;
+   } // end merge
+
+   // Sets keys and values from index first up to index last to null.
+   private static <K extends Comparable<? super K>, V> void clearSlots(Node<K, V> node,
+                                                                   int first, int last)
+   {
+      for (int index = first; index < last; index++)
+         node.keys[index] = null;
+      if (node instanceof Leaf)
+      {
+         for (int index = first; index < last; index++)
+            ((Leaf<K, V>)node).values[index] = null;
+      } // end if
+   } // end clearSlots
+
+   private static class Node<K extends Comparable<? super K>, V>
+   {
+      K[] keys;      // Sorted; one extra location holds a key before a split
+      int size;      // Number of keys
+
+      Node(int maxKeys)
+      {
+         // The cast is safe because the new array contains null entries
+         @SuppressWarnings("unchecked")
+         K[] temp = (K[])new Comparable<?>[maxKeys + 1];
+         keys = temp;
+         size = 0;
+      } // end constructor
+
+      // Returns the index of the first key >= key, or size if there is none.
+      int ceilingIndex(K key)
+      {
+         int low = 0;
+         int high = size;
+         while (low < high)
+         {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0)
+               low = middle + 1;
+            else
+               high = middle;
+         } // end while
+
+         return low;
+      } // end ceilingIndex
+
+      // Returns the index of key, or -1 if key is not in this node.
+      int indexOf(K key)
+      {
+         int index = ceilingIndex(key);
+         if ((index < size) && (keys[index].compareTo(key) == 0))
+            return index;
+         else
+            return -1;
+      } // end indexOf
+   } // end Node
+
+   private static class Leaf<K extends Comparable<? super K>, V> extends Node<K, V>
+   {
+      V[] values;    // Parallel to keys
+      Leaf<K, V> next;
+
+      Leaf(int maxKeys)
+      {
+         super(maxKeys);
+         // The cast is safe because the new array contains null entries
+         @SuppressWarnings("unchecked")
+         V[] temp = (V[])new Object[maxKeys + 1];
+         values = temp;
+      } // end constructor
+
+      void insertAt(int index, K key, V value)
+      {
+         System.arraycopy(keys, index, keys, index + 1, size - index);
+         System.arraycopy(values, index, values, index + 1, size - index);
+         keys[index] = key;
+         values[index] = value;
+         size++;
+      } // end insertAt
+
+      void removeAt(int index)
+      {
+         System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+         System.arraycopy(values, index + 1, values, index, size - index - 1);
+         size--;
+         keys[size] = null;
+         values[size] = null;
+      } // end removeAt
+   } // end Leaf
+
+   private static class Internal<K extends Comparable<? super K>, V> extends Node<K, V>
+   {
+      Node<K, V>[] children;   // children[i] holds keys from keys[i - 1] up to keys[i]
+
+      Internal(int maxKeys)
+      {
+         super(maxKeys);
+         // The cast is safe because the new array contains null entries
+         @SuppressWarnings("unchecked")
+         Node<K, V>[] temp = (Node<K, V>[])new Node<?, ?>[maxKeys + 2];
+         children = temp;
+      } // end constructor
+
+      // Returns the index of the child whose range of keys includes key.
+      int childIndexOf(K key)
+      {
+         int index = ceilingIndex(key);
+         if ((index < size) && (keys[index].compareTo(key) == 0))
+            index++; // A separating key belongs to the right child
+         return index;
+      } // end childIndexOf
+
+      // Inserts a key and, to its right, a child.
+      void insertAt(int index, K key, Node<K, V> rightChild)
+      {
+         System.arraycopy(keys, index, keys, index + 1, size - index);
+         System.arraycopy(children, index + 1, children, index + 2, size - index);
+         keys[index] = key;
+         children[index + 1] = rightChild;
+         size++;
+      } // end insertAt
+   } // end Internal
+
+   // Traverses the leaves from a given position, in key order.
+   private class LeafIterator
+   {
+      private Leaf<K, V> currentLeaf;  // Location of the next entry
+      private int currentIndex;
+      private final K to;              // End of range (excluded), or null
+      Leaf<K, V> returnedLeaf;         // Location of the entry just passed
+      int returnedIndex;
+
+      private LeafIterator(Leaf<K, V> leaf, int index, K to)
+      {
+         currentLeaf = leaf;
+         currentIndex = index;
+         this.to = to;
+         skipEmptyLeaves();
+      } // end constructor
+
+      public boolean hasNext()
+      {
+         return (currentLeaf != null) &&
+                ((to == null) || (currentLeaf.keys[currentIndex].compareTo(to) < 0));
+      } // end hasNext
+
+      // Moves past the next entry, and records its location in
+      // returnedLeaf and returnedIndex.
+      void advance()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         returnedLeaf = currentLeaf;
+         returnedIndex = currentIndex;
+         currentIndex++;
+         skipEmptyLeaves();
+      } // end advance
+
+      private void skipEmptyLeaves()
+      {
+         while ((currentLeaf != null) && (currentIndex >= currentLeaf.size))
+         {
+            currentLeaf = currentLeaf.next;
+            currentIndex = 0;
+         } // end while
+      } // end skipEmptyLeaves
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end LeafIterator
+
+   private class KeyIterator extends LeafIterator implements Iterator<K>
+   {
+      private KeyIterator(Leaf<K, V> leaf, int index, K to)
+      {
+         super(leaf, index, to);
+      } // end constructor
+
+      public K next()
+      {
+         advance();
+         return returnedLeaf.keys[returnedIndex];
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends LeafIterator implements Iterator<V>
+   {
+      private ValueIterator(Leaf<K, V> leaf, int index, K to)
+      {
+         super(leaf, index, to);
+      } // end constructor
+
+      public V next()
+      {
+         advance();
+         return returnedLeaf.values[returnedIndex];
+      } // end next
+   } // end ValueIterator
+} // end BPlusTreeDictionary
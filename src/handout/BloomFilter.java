@@ -0,0 +1,231 @@
+import java.util.Arrays;
+
+/**
+   A class of Bloom filters: sets that answer whether they might contain
+   an object. A filter never says that an added object is absent, but it
+   can say that an object that was never added might be present.
+   Notes: The filter is sized from the number of objects expected and the
+          desired rate of false positives. It needs about 10 bits per
+          object for a rate of 1%, however large the objects are.
+          The bits are divided into blocks of 512 bits, the size of a
+          typical cache line. All of an object's bits are in one block, so
+          a query reads one cache line instead of one per hash function.
+          Blocking raises the false-positive rate, since some blocks get
+          more than their share of objects, and the more so the lower the
+          rate. So the filter is sized from the rate of a blocked filter:
+          it uses about 3% more bits than an unblocked filter for a rate
+          of 1%, 8% more for 0.1%, and 14% more for 0.01%.
+          Objects are hashed by their hashCode methods, so objects whose
+          hash codes are equal are indistinguishable.
+          Objects cannot be removed from a Bloom filter.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class BloomFilter<T>
+{
+   private final long[] bits;
+   private final int numberOfBlocks;
+   private final int numberOfHashes;               // Bits set per object
+   private int numberOfAdditions;
+
+   private static final int WORDS_PER_BLOCK = 8;   // 512 bits
+   private static final int BLOCK_BITS = 64 * WORDS_PER_BLOCK;
+   private static final int MAX_HASHES = 16;
+   private static final int MAX_BLOCKS = 1 << 26;
+
+   /** Creates an empty Bloom filter.
+       @param expectedCount  The number of objects expected to be added.
+       @param falsePositiveRate  The desired fraction of queries for
+                                 absent objects that report them present;
+                                 greater than 0 and less than 1. */
+   public BloomFilter(int expectedCount, double falsePositiveRate)
+   {
+      if (expectedCount < 0)
+         throw new IllegalArgumentException("Expected count cannot be negative.");
+      if ((falsePositiveRate <= 0.0) || (falsePositiveRate >= 1.0))
+         throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+
+      // An unblocked filter needs -n ln p / (ln 2)^2 bits, so a blocked one
+      // needs at least that many; find the fewest blocks that meet the rate
+      double ln2 = Math.log(2);
+      int count = Math.max(expectedCount, 1);
+      double bitCount = -count * Math.log(falsePositiveRate) / (ln2 * ln2);
+      long low = (long)Math.ceil(bitCount / BLOCK_BITS);
+      long high = low;
+      while ( (high <= MAX_BLOCKS) && (getRate(count, high) > falsePositiveRate) )
+      {
+         low = high + 1;
+         high = high + high;
+      } // end while
+      if (high > MAX_BLOCKS)
+         throw new IllegalStateException("Attempt to create a Bloom filter " +
+                                         "larger than " + MAX_BLOCKS + " blocks.");
+
+      // Binary search for the fewest blocks between low and high
+      while (low < high)
+      {
+         long middle = (low + high) / 2;
+         if (getRate(count, middle) > falsePositiveRate)
+            low = middle + 1;
+         else
+            high = middle;
+      } // end while
+
+      numberOfBlocks = (int)high;
+      bits = new long[numberOfBlocks * WORDS_PER_BLOCK];
+      numberOfHashes = getBestHashCount((double)count / numberOfBlocks);
+      numberOfAdditions = 0;
+   } // end constructor
+
+   /** Adds an object to this filter.
+       @param anObject  The object to be added; not null. */
+   public void add(T anObject)
+   {
+      long h = hash(anObject);
+      int start = blockOf(h);
+      for (int i = 0; i < numberOfHashes; i++)
+      {
+         h = nextHash(h);
+         int bit = (int)(h >>> 55);             // Bit within the block
+         bits[start + (bit >>> 6)] |= 1L << bit;
+      } // end for
+
+      numberOfAdditions++;
+   } // end add
+
+   /** Sees whether this filter might contain an object.
+       @param anObject  The object to be found; not null.
+       @return  False if anObject was definitely not added, or true if it
+                probably was. */
+   public boolean mightContain(T anObject)
+   {
+      long h = hash(anObject);
+      int start = blockOf(h);
+      for (int i = 0; i < numberOfHashes; i++)
+      {
+         h = nextHash(h);
+         int bit = (int)(h >>> 55);
+         if ((bits[start + (bit >>> 6)] & (1L << bit)) == 0)
+            return false;
+      } // end for
+
+      return true;
+   } // end mightContain
+
+   /** Removes all objects from this filter. */
+   public void clear()
+   {
+      Arrays.fill(bits, 0);
+      numberOfAdditions = 0;
+   } // end clear
+
+   /** Gets the number of times add was called since this filter was
+       created or cleared, counting repeated objects each time.
+       @return  The number of additions. */
+   public int getAdditionCount()
+   {
+      return numberOfAdditions;
+   } // end getAdditionCount
+
+   /** Gets the size of this filter.
+       @return  The number of bits. */
+   public long getBitCount()
+   {
+      return 64L * bits.length;
+   } // end getBitCount
+
+   /** Gets the number of bits set for each object.
+       @return  The number of hash functions. */
+   public int getHashCount()
+   {
+      return numberOfHashes;
+   } // end getHashCount
+
+   /** Estimates the current false-positive rate from the number of bits
+       that are set.
+       @return  The estimated fraction of queries for absent objects that
+                report them present. */
+   public double getEstimatedFalsePositiveRate()
+   {
+      long setBits = 0;
+      for (long word : bits)
+         setBits = setBits + Long.bitCount(word);
+      return Math.pow((double)setBits / getBitCount(), numberOfHashes);
+   } // end getEstimatedFalsePositiveRate
+
+   // Returns the false-positive rate of a filter with the given number of
+   // blocks and objects, using the best number of hash functions.
+   private static double getRate(int count, long blocks)
+   {
+      double load = (double)count / blocks;
+      return getBlockedRate(load, getBestHashCount(load));
+   } // end getRate
+
+   // Returns the number of hash functions that minimizes the false-positive
+   // rate when each block holds a given number of objects on average.
+   private static int getBestHashCount(double load)
+   {
+      int best = 1;
+      double bestRate = getBlockedRate(load, 1);
+      for (int hashes = 2; hashes <= MAX_HASHES; hashes++)
+      {
+         double rate = getBlockedRate(load, hashes);
+         if (rate < bestRate)
+         {
+            best = hashes;
+            bestRate = rate;
+         } // end if
+      } // end for
+
+      return best;
+   } // end getBestHashCount
+
+   // Returns the false-positive rate of a blocked filter whose blocks hold
+   // a given number of objects on average. The number of objects in the
+   // block that a query reads is Poisson-distributed, so the rate is the
+   // average over those numbers of the rate of a one-block filter; crowded
+   // blocks make it higher than the rate of an unblocked filter.
+   private static double getBlockedRate(double load, int hashes)
+   {
+      double keepBit = 1.0 - 1.0 / BLOCK_BITS;   // Chance that one hash misses a bit
+      double probability = Math.exp(-load);      // Chance that a block holds j objects
+      double rate = 0.0;
+      int j = 0;
+      while ((j <= load) || (probability > 1e-15))
+      {
+         rate = rate + probability * Math.pow(1.0 - Math.pow(keepBit, (double)j * hashes), hashes);
+         j++;
+         probability = probability * load / j;
+      } // end while
+
+      return rate;
+   } // end getBlockedRate
+
+   // Returns the index in bits of the first word of the block for a hash.
+   private int blockOf(long hash)
+   {
+      // Maps the high 32 bits onto 0 .. numberOfBlocks - 1 without division
+      int block = (int)(((hash >>> 32) * numberOfBlocks) >>> 32);
+      return block * WORDS_PER_BLOCK;
+   } // end blockOf
+
+   // Returns the next value of a 64-bit linear congruential sequence. Its
+   // high 9 bits choose each of an object's bits in the block nearly
+   // independently; deriving them all from two 9-bit values instead would
+   // allow only 2^17 patterns per block and raise the false-positive rate.
+   private static long nextHash(long h)
+   {
+      return h * 0x5851f42d4c957f2dL + 0x14057b7ef767814fL;
+   } // end nextHash
+
+   // Spreads a hash code over 64 bits (the finalizer of SplitMix64).
+   private static long hash(Object anObject)
+   {
+      long h = anObject.hashCode() * 0x9e3779b97f4a7c15L;
+      h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+      h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+      return h ^ (h >>> 31);
+   } // end hash
+} // end BloomFilter
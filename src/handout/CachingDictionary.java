@@ -0,0 +1,592 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+   A class that implements the ADT dictionary as a cache of bounded size.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: A HashedDictionary maps each key to a node, and the nodes are
+          also linked into doubly linked lists in order of use, so finding,
+          moving, and evicting an entry all take O(1) time.
+          When adding an entry would exceed the maximum size, an entry is
+          evicted according to the eviction policy:
+          LRU evicts the least recently used entry.
+          TINY_LFU (W-TinyLFU) places new entries in a small LRU window.
+          An entry leaving the window is admitted to the main part of the
+          cache only if its estimated frequency of use exceeds that of the
+          main part's eviction victim. Frequencies are estimated by a
+          count-min sketch of 4-bit counters that are halved periodically,
+          so a burst of one-time keys cannot flush out popular entries.
+          The main part is divided into a probation list and a protected
+          list; an entry that is used while on probation becomes protected.
+          An entry can also expire a fixed time after it was last added.
+          An expired entry is removed when it is next accessed, when it
+          is evicted, or by cleanUp; until then, getSize counts it.
+          getValue changes the order of use, so do not call it while
+          iterating.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class CachingDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   /** The ways in which an entry is chosen for eviction. */
+   public enum EvictionPolicy {LRU, TINY_LFU}
+
+   // The cache:
+   private final HashedDictionary<K, Node<K, V>> index; // Maps each key to its node
+   private final int maximumSize;
+   private final EvictionPolicy policy;
+   private final long timeToLive;                      // In nanoseconds; 0 if entries never expire
+
+   // Lists in order of use, least recent first; each has a header node:
+   private final Node<K, V> window;                    // New entries (the only list for LRU)
+   private final Node<K, V> probation;                 // Main entries used once since admission
+   private final Node<K, V> protectedList;             // Main entries used again
+   private int windowSize, protectedSize;
+   private final int maxWindowSize, maxProtectedSize;
+   private static final double WINDOW_FRACTION = 0.01;    // Of maximumSize
+   private static final double PROTECTED_FRACTION = 0.8;  // Of the main part
+
+   // Node locations:
+   private static final int IN_WINDOW = 0;
+   private static final int IN_PROBATION = 1;
+   private static final int IN_PROTECTED = 2;
+
+   private final FrequencySketch sketch;               // null for LRU
+
+   // Statistics:
+   private long hitCount, missCount, evictionCount;
+
+   /** Creates an empty LRU cache whose entries never expire.
+       @param maximumSize  The maximum number of entries. */
+   public CachingDictionary(int maximumSize)
+   {
+      this(maximumSize, EvictionPolicy.LRU);
+   } // end constructor
+
+   /** Creates an empty cache whose entries never expire.
+       @param maximumSize  The maximum number of entries.
+       @param policy  The way in which an entry is chosen for eviction. */
+   public CachingDictionary(int maximumSize, EvictionPolicy policy)
+   {
+      this(maximumSize, policy, 0, TimeUnit.NANOSECONDS);
+   } // end constructor
+
+   /** Creates an empty cache.
+       @param maximumSize  The maximum number of entries.
+       @param policy  The way in which an entry is chosen for eviction.
+       @param timeToLive  The time after an entry is added at which it
+                          expires, or 0 if entries should never expire.
+       @param unit  The unit of timeToLive. */
+   public CachingDictionary(int maximumSize, EvictionPolicy policy,
+                            long timeToLive, TimeUnit unit)
+   {
+      if (maximumSize < 1)
+         throw new IllegalArgumentException("Maximum size must be positive.");
+      if (timeToLive < 0)
+         throw new IllegalArgumentException("Time to live cannot be negative.");
+      this.maximumSize = maximumSize;
+      this.policy = policy;
+      this.timeToLive = unit.toNanos(timeToLive);
+      index = new HashedDictionary<>(maximumSize + 1, true,
+                                     HashedDictionary.ProbeStrategy.ROBIN_HOOD);
+
+      window = new Node<>(null, null);
+      probation = new Node<>(null, null);
+      protectedList = new Node<>(null, null);
+      if (policy == EvictionPolicy.TINY_LFU)
+      {
+         maxWindowSize = Math.max(1, (int)(WINDOW_FRACTION * maximumSize));
+         maxProtectedSize = (int)(PROTECTED_FRACTION * (maximumSize - maxWindowSize));
+         sketch = new FrequencySketch(maximumSize);
+      }
+      else
+      {
+         maxWindowSize = maximumSize;
+         maxProtectedSize = 0;
+         sketch = null;
+      } // end if
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      V oldValue = null;
+      Node<K, V> node = getLiveNode(key);
+      if (sketch != null)
+         sketch.increment(key);
+      if (node != null)
+      { // Key found; replace its value
+         oldValue = node.value;
+         node.value = value;
+         node.writeTime = now();
+         recordAccess(node);
+      }
+      else
+      { // Key not found; add a new entry to the window
+         node = new Node<>(key, value);
+         node.writeTime = now();
+         index.add(key, node);
+         linkLast(window, node);
+         node.location = IN_WINDOW;
+         windowSize++;
+         evictIfNeeded();
+      } // end if
+
+      return oldValue;
+   } // end add
+
+   public V remove(K key)
+   {
+      Node<K, V> node = index.remove(key);
+      if (node == null)
+         return null;
+
+      unlinkFromList(node);
+      if (isExpired(node))
+         return null;
+      else
+         return node.value;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      Node<K, V> node = getLiveNode(key);
+      if (sketch != null)
+         sketch.increment(key);
+      if (node == null)
+      {
+         missCount++;
+         return null;
+      } // end if
+
+      hitCount++;
+      recordAccess(node);
+      return node.value;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return getLiveNode(key) != null;
+   } // end contains
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   public boolean isEmpty()
+   {
+      return index.isEmpty();
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return index.getSize();
+   } // end getSize
+
+   public void clear()
+   {
+      index.clear();
+      makeEmpty(window);
+      makeEmpty(probation);
+      makeEmpty(protectedList);
+      windowSize = 0;
+      protectedSize = 0;
+   } // end clear
+
+   /** Removes all expired entries from this cache. */
+   public void cleanUp()
+   {
+      if (timeToLive > 0)
+      {
+         removeExpired(window);
+         removeExpired(probation);
+         removeExpired(protectedList);
+      } // end if
+   } // end cleanUp
+
+   /** Gets the maximum number of entries in this cache.
+       @return  The maximum size. */
+   public int getMaximumSize()
+   {
+      return maximumSize;
+   } // end getMaximumSize
+
+   /** Gets the eviction policy of this cache.
+       @return  The eviction policy. */
+   public EvictionPolicy getEvictionPolicy()
+   {
+      return policy;
+   } // end getEvictionPolicy
+
+   /** Gets the number of calls to getValue that found a live entry.
+       @return  The number of hits. */
+   public long getHitCount()
+   {
+      return hitCount;
+   } // end getHitCount
+
+   /** Gets the number of calls to getValue that found no live entry.
+       @return  The number of misses. */
+   public long getMissCount()
+   {
+      return missCount;
+   } // end getMissCount
+
+   /** Gets the number of entries removed to keep this cache within its
+       maximum size or because they expired.
+       @return  The number of evictions. */
+   public long getEvictionCount()
+   {
+      return evictionCount;
+   } // end getEvictionCount
+
+   /** Gets the fraction of calls to getValue that were hits.
+       @return  The hit rate, or 0 if getValue has not been called. */
+   public double getHitRate()
+   {
+      long requestCount = hitCount + missCount;
+      if (requestCount == 0)
+         return 0.0;
+      else
+         return (double)hitCount / requestCount;
+   } // end getHitRate
+
+   /** Sets the hit, miss, and eviction counts to zero. */
+   public void resetStatistics()
+   {
+      hitCount = 0;
+      missCount = 0;
+      evictionCount = 0;
+   } // end resetStatistics
+
+   // Returns the node of key, or null if key is absent. Removes an expired node.
+   private Node<K, V> getLiveNode(K key)
+   {
+      Node<K, V> node = index.getValue(key);
+      if ((node != null) && isExpired(node))
+      {
+         evict(node);
+         node = null;
+      } // end if
+
+      return node;
+   } // end getLiveNode
+
+   // Moves a node that was just used to its place as most recently used.
+   private void recordAccess(Node<K, V> node)
+   {
+      unlink(node);
+      if (node.location == IN_WINDOW)
+         linkLast(window, node);
+      else if (node.location == IN_PROTECTED)
+         linkLast(protectedList, node);
+      else
+      { // Promote from probation to protected
+         linkLast(protectedList, node);
+         node.location = IN_PROTECTED;
+         protectedSize++;
+         if (protectedSize > maxProtectedSize)
+         { // Demote the least recently used protected node
+            Node<K, V> demoted = protectedList.next;
+            unlink(demoted);
+            linkLast(probation, demoted);
+            demoted.location = IN_PROBATION;
+            protectedSize--;
+         } // end if
+      } // end if
+   } // end recordAccess
+
+   // Evicts entries until this cache is within its maximum size.
+   private void evictIfNeeded()
+   {
+      if (policy == EvictionPolicy.LRU)
+      {
+         while (index.getSize() > maximumSize)
+            evict(window.next);
+      }
+      else
+      {
+         while (windowSize > maxWindowSize)
+         {
+            // Move the window's least recently used node to probation
+            Node<K, V> candidate = window.next;
+            unlink(candidate);
+            windowSize--;
+            linkLast(probation, candidate);
+            candidate.location = IN_PROBATION;
+
+            if (index.getSize() > maximumSize)
+            {
+               // Admit the candidate only if it is used more often than the victim
+               Node<K, V> victim = probation.next;
+               if ((victim != candidate) &&
+                   (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)))
+                  victim = candidate;
+               evict(victim);
+            } // end if
+         } // end while
+      } // end if
+   } // end evictIfNeeded
+
+   private void evict(Node<K, V> node)
+   {
+      index.remove(node.key);
+      unlinkFromList(node);
+      evictionCount++;
+   } // end evict
+
+   private void removeExpired(Node<K, V> header)
+   {
+      Node<K, V> node = header.next;
+      while (node != header)
+      {
+         Node<K, V> nextNode = node.next;
+         if (isExpired(node))
+            evict(node);
+         node = nextNode;
+      } // end while
+   } // end removeExpired
+
+   private boolean isExpired(Node<K, V> node)
+   {
+      return (timeToLive > 0) && (now() - node.writeTime >= timeToLive);
+   } // end isExpired
+
+   private static long now()
+   {
+      return System.nanoTime();
+   } // end now
+
+// -------------------------
+// Operations on the circular, doubly linked lists. A list's header node
+// contains no entry; its next node is least recently used.
+// -------------------------
+
+   private static <K, V> void linkLast(Node<K, V> header, Node<K, V> node)
+   {
+      node.previous = header.previous;
+      node.next = header;
+      header.previous.next = node;
+      header.previous = node;
+   } // end linkLast
+
+   private static <K, V> void unlink(Node<K, V> node)
+   {
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+   } // end unlink
+
+   // Unlinks a node and updates the size of the list that contained it.
+   private void unlinkFromList(Node<K, V> node)
+   {
+      unlink(node);
+      if (node.location == IN_WINDOW)
+         windowSize--;
+      else if (node.location == IN_PROTECTED)
+         protectedSize--;
+   } // end unlinkFromList
+
+   private static <K, V> void makeEmpty(Node<K, V> header)
+   {
+      header.previous = header;
+      header.next = header;
+   } // end makeEmpty
+
+   private static class Node<K, V>
+   {
+      private final K key;
+      private V value;
+      private long writeTime;        // When value was added, in nanoseconds
+      private int location;          // IN_WINDOW, IN_PROBATION, or IN_PROTECTED
+      private Node<K, V> previous;
+      private Node<K, V> next;
+
+      private Node(K searchKey, V dataValue)
+      {
+         key = searchKey;
+         value = dataValue;
+         previous = this;
+         next = this;
+      } // end constructor
+   } // end Node
+
+   // Estimates how often each key has been used recently: a count-min
+   // sketch whose 4-bit counters are halved after every sampleSize
+   // increments, so old popularity fades.
+   private static class FrequencySketch
+   {
+      private final long[] table;    // 16 counters per long
+      private final int mask;
+      private final int sampleSize;
+      private int additions;
+
+      private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+                                           0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+      private static final long RESET_MASK = 0x7777777777777777L;
+
+      private FrequencySketch(int maximumSize)
+      {
+         int tableSize = 16;
+         while ((tableSize < maximumSize) && (tableSize < (1 << 30)))
+            tableSize = tableSize + tableSize;
+         table = new long[tableSize];
+         mask = tableSize - 1;
+         sampleSize = (int)Math.min(10L * maximumSize, Integer.MAX_VALUE);
+         additions = 0;
+      } // end constructor
+
+      // Returns the estimated number of uses of key, 0 through 15.
+      private int frequency(Object key)
+      {
+         int hash = spread(key.hashCode());
+         int start = (hash & 3) << 2;
+         int result = 15;
+         for (int row = 0; row < 4; row++)
+         {
+            int offset = (start + row) << 2;
+            int count = (int)((table[indexOf(hash, row)] >>> offset) & 0xF);
+            result = Math.min(result, count);
+         } // end for
+
+         return result;
+      } // end frequency
+
+      // Records a use of key.
+      private void increment(Object key)
+      {
+         int hash = spread(key.hashCode());
+         int start = (hash & 3) << 2;
+         boolean added = false;
+         for (int row = 0; row < 4; row++)
+         {
+            int offset = (start + row) << 2;
+            int tableIndex = indexOf(hash, row);
+            if (((table[tableIndex] >>> offset) & 0xF) != 0xF)
+            {
+               table[tableIndex] = table[tableIndex] + (1L << offset);
+               added = true;
+            } // end if
+         } // end for
+
+         if (added)
+         {
+            additions++;
+            if (additions >= sampleSize)
+               reset();
+         } // end if
+      } // end increment
+
+      // Halves every counter.
+      private void reset()
+      {
+         for (int tableIndex = 0; tableIndex < table.length; tableIndex++)
+            table[tableIndex] = (table[tableIndex] >>> 1) & RESET_MASK;
+         additions = additions / 2;
+      } // end reset
+
+      private int indexOf(int hash, int row)
+      {
+         long h = (hash + SEEDS[row]) * SEEDS[row];
+         h = h + (h >>> 32);
+         return (int)h & mask;
+      } // end indexOf
+
+      private static int spread(int h)
+      {
+         h = h ^ (h >>> 16);
+         h = h * 0x45d9f3b;
+         h = h ^ (h >>> 16);
+         return h;
+      } // end spread
+   } // end FrequencySketch
+
+   // Traverses the live entries, list by list.
+   private class NodeIterator
+   {
+      private Node<K, V> header;     // Header of the current list
+      private Node<K, V> nextNode;   // Next node to return, or null
+
+      private NodeIterator()
+      {
+         header = window;
+         nextNode = window;
+         advance();
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return nextNode != null;
+      } // end hasNext
+
+      Node<K, V> nextNode()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         Node<K, V> result = nextNode;
+         advance();
+         return result;
+      } // end nextNode
+
+      // Moves nextNode to the next live node in this list or a later one.
+      private void advance()
+      {
+         Node<K, V> node = nextNode.next;
+         while (true)
+         {
+            if (node == header)
+            {
+               if (header == window)
+                  header = probation;
+               else if (header == probation)
+                  header = protectedList;
+               else
+               {
+                  nextNode = null;
+                  return;
+               } // end if
+               node = header.next;
+            }
+            else if (isExpired(node))
+               node = node.next;
+            else
+            {
+               nextNode = node;
+               return;
+            } // end if
+         } // end while
+      } // end advance
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end NodeIterator
+
+   private class KeyIterator extends NodeIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         return nextNode().key;
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends NodeIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return nextNode().value;
+      } // end next
+   } // end ValueIterator
+} // end CachingDictionary
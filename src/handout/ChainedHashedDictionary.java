@@ -0,0 +1,628 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements the ADT dictionary by using hashing and
+   separate chaining to resolve collisions.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: Each location of the hash table references a chain of the
+          entries whose keys hash to that location.
+          A chain that grows longer than TREEIFY_THRESHOLD is converted
+          into a balanced (AVL) binary search tree, provided that its keys
+          are Comparable. A poor or adversarial hashCode method, such as one
+          that maps many keys to the same value, then costs O(log n) per
+          operation instead of O(n).
+          The natural ordering of the keys must be consistent with equals.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class ChainedHashedDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   // The dictionary:
+   private int numberOfEntries;
+   private static final int DEFAULT_CAPACITY = 16;
+   private static final int MAX_SIZE = 1 << 30;          // Max size of hash table
+
+   // The hash table:
+   private Node<K, V>[] hashTable;                       // Size is a power of 2
+   private boolean initialized = false;
+   private static final double MAX_LOAD_FACTOR = 0.75;   // Average chain length allowed
+   private static final int TREEIFY_THRESHOLD = 8;       // Longest chain before conversion to a tree
+
+   public ChainedHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY); // Call next constructor
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged. */
+   public ChainedHashedDictionary(int initialCapacity)
+   {
+      if (initialCapacity < DEFAULT_CAPACITY)
+         initialCapacity = DEFAULT_CAPACITY;
+      else if (initialCapacity > MAX_LOAD_FACTOR * MAX_SIZE)
+         throw new IllegalStateException("Attempt to create a dictionary " +
+                                         "whose capacity is larger than " +
+                                         (int)(MAX_LOAD_FACTOR * MAX_SIZE));
+      numberOfEntries = 0;
+
+      int tableSize = 1;
+      while (tableSize < initialCapacity / MAX_LOAD_FACTOR)
+         tableSize = tableSize + tableSize;
+
+      hashTable = newTable(tableSize);
+      initialized = true;
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      checkInitialization();
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      int hash = hash(key);
+      int index = hash & (hashTable.length - 1);
+      V oldValue = null;
+
+      if (hashTable[index] instanceof TreeNode)
+      {
+         TreeNode<K, V> root = (TreeNode<K, V>)hashTable[index];
+         if (!(key instanceof Comparable))
+         { // The tree cannot order this key, so return to a chain
+            hashTable[index] = untreeify(root);
+         }
+         else
+         {
+            TreeNode<K, V> node = findInTree(root, hash, key);
+            if (node != null)
+            { // Key found; replace its value
+               oldValue = node.value;
+               node.value = value;
+            }
+            else
+            {
+               hashTable[index] = addToTree(root, new TreeNode<>(hash, key, value));
+               numberOfEntries++;
+            } // end if
+         } // end if
+      } // end if
+
+      if (!(hashTable[index] instanceof TreeNode))
+      {
+         // Search the chain, counting its length
+         Node<K, V> currentNode = hashTable[index];
+         Node<K, V> lastNode = null;
+         int chainLength = 0;
+         while ( (currentNode != null) && !matches(currentNode, hash, key) )
+         {
+            lastNode = currentNode;
+            currentNode = currentNode.next;
+            chainLength++;
+         } // end while
+
+         if (currentNode != null)
+         { // Key found; replace its value
+            oldValue = currentNode.value;
+            currentNode.value = value;
+         }
+         else
+         { // Key not found; add new entry to end of chain
+            Node<K, V> newNode = new Node<>(hash, key, value);
+            if (lastNode == null)
+               hashTable[index] = newNode;
+            else
+               lastNode.next = newNode;
+            numberOfEntries++;
+
+            if ( (chainLength + 1 > TREEIFY_THRESHOLD) && isTreeifiable(hashTable[index]) )
+               hashTable[index] = treeify(hashTable[index]);
+         } // end if
+      } // end if
+
+      // Ensure that hash table is large enough for another add
+      if ( (oldValue == null) && (numberOfEntries > MAX_LOAD_FACTOR * hashTable.length) )
+         enlargeHashTable();
+
+      return oldValue;
+   } // end add
+
+   public V remove(K key)
+   {
+      checkInitialization();
+      V removedValue = null;
+      int hash = hash(key);
+      int index = hash & (hashTable.length - 1);
+
+      if (hashTable[index] instanceof TreeNode)
+      {
+         TreeNode<K, V> root = (TreeNode<K, V>)hashTable[index];
+         TreeNode<K, V> node = (key instanceof Comparable) ? findInTree(root, hash, key) : null;
+         if (node != null)
+         {
+            removedValue = node.value;
+            hashTable[index] = removeFromTree(root, node);
+            numberOfEntries--;
+         } // end if
+      }
+      else
+      {
+         Node<K, V> nodeBefore = null;
+         Node<K, V> currentNode = hashTable[index];
+         while ( (currentNode != null) && !matches(currentNode, hash, key) )
+         {
+            nodeBefore = currentNode;
+            currentNode = currentNode.next;
+         } // end while
+
+         if (currentNode != null)
+         { // Key found; unlink its node from the chain
+            removedValue = currentNode.value;
+            if (nodeBefore == null)
+               hashTable[index] = currentNode.next;
+            else
+               nodeBefore.next = currentNode.next;
+            numberOfEntries--;
+         } // end if
+      } // end if
+      // Else not found; result is null
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      checkInitialization();
+      V result = null;
+      Node<K, V> node = findNode(key);
+      if (node != null)
+         result = node.value;
+
+      return result;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return getValue(key) != null;
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public final void clear()
+   {
+      checkInitialization();
+      for (int index = 0; index < hashTable.length; index++)
+         hashTable[index] = null;
+
+      numberOfEntries = 0;
+   } // end clear
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   // Returns the node containing key, or null if there is none.
+   private Node<K, V> findNode(K key)
+   {
+      int hash = hash(key);
+      Node<K, V> result = hashTable[hash & (hashTable.length - 1)];
+
+      if (result instanceof TreeNode)
+      {
+         if (key instanceof Comparable)
+            result = findInTree((TreeNode<K, V>)result, hash, key);
+         else
+            result = null;   // A tree holds only Comparable keys
+      }
+      else
+      {
+         while ( (result != null) && !matches(result, hash, key) )
+            result = result.next;
+      } // end if
+
+      return result;
+   } // end findNode
+
+   // Spreads the bits of key's hash code so that its low-order bits depend
+   // on all of its bits (the finalization step of MurmurHash3).
+   private static int hash(Object key)
+   {
+      int h = key.hashCode();
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end hash
+
+   // Returns true if the given node contains key, whose hash is given.
+   private static <K, V> boolean matches(Node<K, V> node, int hash, K key)
+   {
+      return (node.hash == hash) && key.equals(node.key);
+   } // end matches
+
+   // Doubles the size of the hash table and rehashes the table entries.
+   private void enlargeHashTable()
+   {
+      Node<K, V>[] oldTable = hashTable;
+      if (oldTable.length >= MAX_SIZE)
+         throw new IllegalStateException("Dictionary has become too large.");
+
+      hashTable = newTable(oldTable.length + oldTable.length);
+      for (int index = 0; index < oldTable.length; index++)
+      {
+         Node<K, V> chain = oldTable[index];
+         if (chain instanceof TreeNode)
+            chain = untreeify((TreeNode<K, V>)chain);
+
+         while (chain != null)
+         {
+            Node<K, V> nextNode = chain.next;
+            chain.next = null;
+            rehash(chain);
+            chain = nextNode;
+         } // end while
+      } // end for
+   } // end enlargeHashTable
+
+   // Adds an existing node to the beginning of its chain in the hash table,
+   // converting the chain to a tree if it becomes too long.
+   // Precondition: The node's key is not in the hash table,
+   //               and the node is not a TreeNode.
+   private void rehash(Node<K, V> node)
+   {
+      int index = node.hash & (hashTable.length - 1);
+      if (hashTable[index] instanceof TreeNode)
+      {
+         if (node.key instanceof Comparable)
+         {
+            hashTable[index] = addToTree((TreeNode<K, V>)hashTable[index],
+                                         new TreeNode<>(node.hash, node.key, node.value));
+            return;
+         } // end if
+         hashTable[index] = untreeify((TreeNode<K, V>)hashTable[index]);
+      } // end if
+
+      node.next = hashTable[index];
+      hashTable[index] = node;
+
+      int chainLength = 0;
+      for (Node<K, V> current = node; current != null; current = current.next)
+         chainLength++;
+      if ( (chainLength > TREEIFY_THRESHOLD) && isTreeifiable(node) )
+         hashTable[index] = treeify(node);
+   } // end rehash
+
+// -------------------------
+// Treeified buckets
+// -------------------------
+
+   // Returns true if every key in the given chain is Comparable.
+   private boolean isTreeifiable(Node<K, V> chain)
+   {
+      boolean result = true;
+      while (result && (chain != null))
+      {
+         result = chain.key instanceof Comparable;
+         chain = chain.next;
+      } // end while
+
+      return result;
+   } // end isTreeifiable
+
+   // Returns the root of an AVL tree that contains the entries of a chain.
+   private TreeNode<K, V> treeify(Node<K, V> chain)
+   {
+      TreeNode<K, V> root = null;
+      while (chain != null)
+      {
+         root = addToTree(root, new TreeNode<>(chain.hash, chain.key, chain.value));
+         chain = chain.next;
+      } // end while
+
+      return root;
+   } // end treeify
+
+   // Returns a chain that contains the entries of a tree.
+   private Node<K, V> untreeify(TreeNode<K, V> root)
+   {
+      Node<K, V> chain = null;
+      Deque<TreeNode<K, V>> stack = new ArrayDeque<>();
+      if (root != null)
+         stack.push(root);
+
+      while (!stack.isEmpty())
+      {
+         TreeNode<K, V> treeNode = stack.pop();
+         Node<K, V> newNode = new Node<>(treeNode.hash, treeNode.key, treeNode.value);
+         newNode.next = chain;
+         chain = newNode;
+
+         if (treeNode.left != null)
+            stack.push(treeNode.left);
+         if (treeNode.right != null)
+            stack.push(treeNode.right);
+      } // end while
+
+      return chain;
+   } // end untreeify
+
+   // Orders keys by hash, then by class name, then by natural ordering.
+   // Precondition: Both keys are Comparable.
+   @SuppressWarnings("unchecked")
+   private int compare(int hash1, K key1, int hash2, K key2)
+   {
+      int result;
+      if (hash1 != hash2)
+         result = (hash1 < hash2) ? -1 : 1;
+      else if (key1.getClass() != key2.getClass())
+         result = key1.getClass().getName().compareTo(key2.getClass().getName());
+      else
+         result = ((Comparable<Object>)key1).compareTo(key2);
+
+      return result;
+   } // end compare
+
+   // Returns the node in the given tree that contains key, or null.
+   // Precondition: key is Comparable.
+   private TreeNode<K, V> findInTree(TreeNode<K, V> root, int hash, K key)
+   {
+      TreeNode<K, V> currentNode = root;
+      boolean found = false;
+      while (!found && (currentNode != null))
+      {
+         int comparison = compare(hash, key, currentNode.hash, currentNode.key);
+         if (comparison == 0)
+            found = true;
+         else if (comparison < 0)
+            currentNode = currentNode.left;
+         else
+            currentNode = currentNode.right;
+      } // end while
+
+      return currentNode;
+   } // end findInTree
+
+   // Adds a new node to an AVL tree and returns the tree's new root.
+   // Precondition: The node's key is not in the tree.
+   private TreeNode<K, V> addToTree(TreeNode<K, V> root, TreeNode<K, V> newNode)
+   {
+      if (root == null)
+         return newNode;
+
+      if (compare(newNode.hash, newNode.key, root.hash, root.key) < 0)
+         root.left = addToTree(root.left, newNode);
+      else
+         root.right = addToTree(root.right, newNode);
+
+      return rebalance(root);
+   } // end addToTree
+
+   // Removes a node from an AVL tree and returns the tree's new root.
+   // Precondition: The node is in the tree.
+   private TreeNode<K, V> removeFromTree(TreeNode<K, V> root, TreeNode<K, V> node)
+   {
+      if (root == node)
+      {
+         if (root.left == null)
+            return root.right;
+         else if (root.right == null)
+            return root.left;
+
+         // Replace the node with the smallest node in its right subtree
+         TreeNode<K, V> successor = root.right;
+         while (successor.left != null)
+            successor = successor.left;
+         successor.right = removeFromTree(root.right, successor);
+         successor.left = root.left;
+         root = successor;
+      }
+      else if (compare(node.hash, node.key, root.hash, root.key) < 0)
+         root.left = removeFromTree(root.left, node);
+      else
+         root.right = removeFromTree(root.right, node);
+
+      return rebalance(root);
+   } // end removeFromTree
+
+   private static <K, V> int getHeight(TreeNode<K, V> node)
+   {
+      return (node == null) ? 0 : node.height;
+   } // end getHeight
+
+   // Restores the AVL property at the given node after one of its subtrees
+   // has changed height by at most 1, and returns the subtree's new root.
+   private TreeNode<K, V> rebalance(TreeNode<K, V> node)
+   {
+      int balance = getHeight(node.left) - getHeight(node.right);
+      if (balance > 1)
+      {
+         if (getHeight(node.left.left) < getHeight(node.left.right))
+            node.left = rotateLeft(node.left);
+         node = rotateRight(node);
+      }
+      else if (balance < -1)
+      {
+         if (getHeight(node.right.right) < getHeight(node.right.left))
+            node.right = rotateRight(node.right);
+         node = rotateLeft(node);
+      }
+      else
+         updateHeight(node);
+
+      return node;
+   } // end rebalance
+
+   private TreeNode<K, V> rotateRight(TreeNode<K, V> node)
+   {
+      TreeNode<K, V> child = node.left;
+      node.left = child.right;
+      child.right = node;
+      updateHeight(node);
+      updateHeight(child);
+      return child;
+   } // end rotateRight
+
+   private TreeNode<K, V> rotateLeft(TreeNode<K, V> node)
+   {
+      TreeNode<K, V> child = node.right;
+      node.right = child.left;
+      child.left = node;
+      updateHeight(node);
+      updateHeight(child);
+      return child;
+   } // end rotateLeft
+
+   private void updateHeight(TreeNode<K, V> node)
+   {
+      node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+   } // end updateHeight
+
+// -------------------------
+
+   private Node<K, V>[] newTable(int size)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      Node<K, V>[] table = (Node<K, V>[])new Node<?, ?>[size];
+      return table;
+   } // end newTable
+
+   // Throws an exception if this object is not initialized.
+   private void checkInitialization()
+   {
+      if (!initialized)
+         throw new SecurityException ("ChainedHashedDictionary object is not initialized properly.");
+   } // end checkInitialization
+
+   // Traverses the nodes of the hash table, one bucket at a time. A tree
+   // bucket is traversed in preorder by using a stack.
+   private class NodeIterator
+   {
+      private int nextIndex;                     // Next location of hash table to visit
+      private Node<K, V> nextNode;               // Next node in current chain
+      private Deque<TreeNode<K, V>> treeNodes;   // Nodes left in current tree
+      private int numberLeft;                    // Number of entries left in iteration
+
+      private NodeIterator()
+      {
+         nextIndex = 0;
+         nextNode = null;
+         treeNodes = new ArrayDeque<>();
+         numberLeft = numberOfEntries;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      Node<K, V> nextNode()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         while ( (nextNode == null) && treeNodes.isEmpty() )
+         { // Move to the next nonempty bucket
+            Node<K, V> bucket = hashTable[nextIndex];
+            nextIndex++;
+            if (bucket instanceof TreeNode)
+               treeNodes.push((TreeNode<K, V>)bucket);
+            else
+               nextNode = bucket;
+         } // end while
+
+         Node<K, V> result;
+         if (nextNode != null)
+         {
+            result = nextNode;
+            nextNode = nextNode.next;
+         }
+         else
+         {
+            TreeNode<K, V> treeNode = treeNodes.pop();
+            if (treeNode.right != null)
+               treeNodes.push(treeNode.right);
+            if (treeNode.left != null)
+               treeNodes.push(treeNode.left);
+            result = treeNode;
+         } // end if
+
+         numberLeft--;
+         return result;
+      } // end nextNode
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end NodeIterator
+
+   private class KeyIterator extends NodeIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         return nextNode().key;
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends NodeIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return nextNode().value;
+      } // end next
+   } // end ValueIterator
+
+   private static class Node<K, V>
+   {
+      final int hash;           // Mixed hash code of key
+      final K key;
+      V value;
+      Node<K, V> next;          // Next node in chain
+
+      private Node(int keyHash, K searchKey, V dataValue)
+      {
+         hash = keyHash;
+         key = searchKey;
+         value = dataValue;
+         next = null;
+      } // end constructor
+   } // end Node
+
+   // A node in a bucket that has been converted into an AVL tree.
+   // The inherited next field is unused.
+   private static class TreeNode<K, V> extends Node<K, V>
+   {
+      private TreeNode<K, V> left;
+      private TreeNode<K, V> right;
+      private int height;
+
+      private TreeNode(int keyHash, K searchKey, V dataValue)
+      {
+         super(keyHash, searchKey, dataValue);
+         left = null;
+         right = null;
+         height = 1;
+      } // end constructor
+   } // end TreeNode
+} // end ChainedHashedDictionary
@@ -0,0 +1,342 @@
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+   A class that implements a bag of objects that is safe for use by many
+   threads at once.
+   Notes: The bag is divided into stripes, each a linked stack of nodes.
+          A thread always adds to the same stripe, chosen from its id, so
+          threads that add at the same time usually touch different
+          stripes. add never locks: it pushes a node onto its stripe with
+          a single compare-and-set.
+          Each stripe also has a lock, which only removals take. remove()
+          takes an entry from the calling thread's stripe if it can, and
+          otherwise steals one from the next stripe that is not empty.
+          Because only a thread that holds a stripe's lock changes the
+          links of nodes already in the stripe, a removal needs no other
+          coordination with adds.
+          contains, getFrequencyOf, and toArray never lock. They reflect
+          the state of each stripe at some time during the call.
+          getCurrentSize sums one counter per stripe; it is exact only when
+          no other thread is changing the bag.
+          Null entries cannot be added.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class ConcurrentBag<T> implements BagInterface<T>
+{
+   private final Stripe<T>[] stripes;                    // Size is a power of 2
+   private final int stripeShift;                        // Shift that selects a stripe from a hash
+   private static final int MAX_STRIPES = 1 << 16;
+
+   /** Creates an empty bag with about one stripe per processor. */
+   public ConcurrentBag()
+   {
+      this(Runtime.getRuntime().availableProcessors());
+   } // end default constructor
+
+   /** Creates an empty bag.
+       @param concurrencyLevel  The number of threads expected to change the
+                                bag at the same time. */
+   public ConcurrentBag(int concurrencyLevel)
+   {
+      if (concurrencyLevel <= 0)
+         throw new IllegalArgumentException("Concurrency level must be positive.");
+      if (concurrencyLevel > MAX_STRIPES)
+         concurrencyLevel = MAX_STRIPES;
+
+      int numberOfStripes = 1;
+      int shift = 32;
+      while (numberOfStripes < concurrencyLevel)
+      {
+         numberOfStripes = numberOfStripes + numberOfStripes;
+         shift--;
+      } // end while
+      stripeShift = shift;
+
+      stripes = newStripeArray(numberOfStripes);
+      for (int index = 0; index < numberOfStripes; index++)
+         stripes[index] = new Stripe<>();
+   } // end constructor
+
+   /** Adds a new entry to this bag without locking.
+       @param newEntry  The object to be added as a new entry.
+       @return  True if the addition is successful, or false if newEntry is null. */
+   public boolean add(T newEntry)
+   {
+      if (newEntry == null)
+         return false;
+
+      stripes[getHomeStripe()].push(newEntry);
+      return true;
+   } // end add
+
+   /** Removes one unspecified entry from this bag, if possible. The entry
+       is taken from the calling thread's stripe if that is not empty.
+       @return  Either the removed entry, if the removal was successful,
+                or null. */
+   public T remove()
+   {
+      int home = getHomeStripe();
+      int mask = stripes.length - 1;
+
+      // First avoid stripes whose locks are held, then wait for them
+      for (int pass = 0; pass < 2; pass++)
+      {
+         for (int offset = 0; offset < stripes.length; offset++)
+         {
+            Stripe<T> stripe = stripes[(home + offset) & mask];
+            if (stripe.head.get() != null)
+            {
+               if (pass == 0)
+               {
+                  if (!stripe.lock.tryLock())
+                     continue;
+               }
+               else
+                  stripe.lock.lock();
+
+               try
+               {
+                  T result = stripe.pop();
+                  if (result != null)
+                     return result;
+               }
+               finally
+               {
+                  stripe.lock.unlock();
+               } // end try
+            } // end if
+         } // end for
+      } // end for
+
+      return null;
+   } // end remove
+
+   /** Removes one occurrence of a given entry from this bag, if possible.
+       @param anEntry  The entry to be removed.
+       @return  True if the removal was successful, or false if not. */
+   public boolean remove(T anEntry)
+   {
+      if (anEntry == null)
+         return false;
+
+      int home = getHomeStripe();
+      int mask = stripes.length - 1;
+      for (int offset = 0; offset < stripes.length; offset++)
+      {
+         Stripe<T> stripe = stripes[(home + offset) & mask];
+         if (stripe.find(anEntry) != null)
+         {
+            stripe.lock.lock();
+            try
+            {
+               if (stripe.unlink(anEntry))
+                  return true;
+            }
+            finally
+            {
+               stripe.lock.unlock();
+            } // end try
+         } // end if
+      } // end for
+
+      return false;
+   } // end remove
+
+   /** Removes all entries from this bag. Entries that other threads add
+       during the call might remain. */
+   public void clear()
+   {
+      for (Stripe<T> stripe : stripes)
+      {
+         stripe.lock.lock();
+         try
+         {
+            while (stripe.pop() != null)
+               ;
+         }
+         finally
+         {
+            stripe.lock.unlock();
+         } // end try
+      } // end for
+   } // end clear
+
+   /** Gets the approximate number of entries in this bag.
+       @return  The integer number of entries currently in the bag. */
+   public int getCurrentSize()
+   {
+      long sum = 0;
+      for (Stripe<T> stripe : stripes)
+         sum = sum + stripe.count.get();
+
+      return (int)Math.max(0, Math.min(sum, Integer.MAX_VALUE));
+   } // end getCurrentSize
+
+   /** Sees whether this bag is empty.
+       @return  True if the bag is empty, or false if not. */
+   public boolean isEmpty()
+   {
+      for (Stripe<T> stripe : stripes)
+      {
+         if (stripe.head.get() != null)
+            return false;
+      } // end for
+
+      return true;
+   } // end isEmpty
+
+   /** Counts the number of times a given entry appears in this bag.
+       @param anEntry  The entry to be counted.
+       @return  The number of times anEntry appears in the bag. */
+   public int getFrequencyOf(T anEntry)
+   {
+      int counter = 0;
+      for (Stripe<T> stripe : stripes)
+      {
+         for (Node<T> node = stripe.head.get(); node != null; node = node.next)
+         {
+            if (node.data.equals(anEntry))
+               counter++;
+         } // end for
+      } // end for
+
+      return counter;
+   } // end getFrequencyOf
+
+   /** Tests whether this bag contains a given entry.
+       @param anEntry  The entry to find.
+       @return  True if the bag contains anEntry, or false if not. */
+   public boolean contains(T anEntry)
+   {
+      for (Stripe<T> stripe : stripes)
+      {
+         if (stripe.find(anEntry) != null)
+            return true;
+      } // end for
+
+      return false;
+   } // end contains
+
+   /** Retrieves all entries that are in this bag.
+       @return  A newly allocated array of all the entries in the bag. */
+   public T[] toArray()
+   {
+      ArrayList<T> entries = new ArrayList<>(getCurrentSize());
+      for (Stripe<T> stripe : stripes)
+      {
+         for (Node<T> node = stripe.head.get(); node != null; node = node.next)
+            entries.add(node.data);
+      } // end for
+
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] result = (T[])new Object[entries.size()]; // Unchecked cast
+      return entries.toArray(result);
+   } // end toArray
+
+   // Returns a new array of the given number of null stripes.
+   private static <T> Stripe<T>[] newStripeArray(int length)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Stripe<T>[] result = (Stripe<T>[])new Stripe[length];
+      return result;
+   } // end newStripeArray
+
+   // Returns the index of the calling thread's stripe.
+   private int getHomeStripe()
+   {
+      if (stripeShift == 32)
+         return 0;
+
+      int h = (int)Thread.currentThread().getId() * 0x9e3779b9; // Spreads consecutive ids
+      return h >>> stripeShift;
+   } // end getHomeStripe
+
+   // A linked stack whose top is changed by compare-and-set. Only a thread
+   // that holds the lock changes the link of a node already in the stack.
+   private static final class Stripe<T>
+   {
+      private final ReentrantLock lock = new ReentrantLock(); // Taken only by removals
+      private final AtomicReference<Node<T>> head = new AtomicReference<>();
+      private final AtomicInteger count = new AtomicInteger();
+
+      private void push(T newEntry)
+      {
+         Node<T> newNode = new Node<>(newEntry);
+         Node<T> top;
+         do
+         {
+            top = head.get();
+            newNode.next = top;
+         } while (!head.compareAndSet(top, newNode));
+
+         count.incrementAndGet();
+      } // end push
+
+      // Precondition: The lock is held.
+      private T pop()
+      {
+         Node<T> top = head.get();
+         while ((top != null) && !head.compareAndSet(top, top.next))
+            top = head.get(); // Another thread pushed
+
+         if (top == null)
+            return null;
+
+         count.decrementAndGet();
+         return top.data;
+      } // end pop
+
+      private Node<T> find(T anEntry)
+      {
+         for (Node<T> node = head.get(); node != null; node = node.next)
+         {
+            if (node.data.equals(anEntry))
+               return node;
+         } // end for
+
+         return null;
+      } // end find
+
+      // Removes the first node that contains anEntry.
+      // Precondition: The lock is held.
+      private boolean unlink(T anEntry)
+      {
+         Node<T> target = find(anEntry);
+         if (target == null)
+            return false;
+
+         // If target is at the top, only a push can interfere
+         if (!head.compareAndSet(target, target.next))
+         {
+            // Nodes were pushed above target; find its predecessor, which
+            // no other thread can unlink while we hold the lock
+            Node<T> previous = head.get();
+            while (previous.next != target)
+               previous = previous.next;
+            previous.next = target.next;
+         } // end if
+
+         count.decrementAndGet();
+         return true;
+      } // end unlink
+   } // end Stripe
+
+   private static final class Node<T>
+   {
+      private final T data;
+      private volatile Node<T> next;
+
+      private Node(T data)
+      {
+         this.data = data;
+      } // end constructor
+   } // end Node
+} // end ConcurrentBag
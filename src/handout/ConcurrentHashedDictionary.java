@@ -0,0 +1,493 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+   A class that implements the ADT dictionary by using hashing and
+   separate chaining, and that is safe for use by many threads at once.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: The dictionary is divided into segments, each a small hash table
+          guarded by its own lock. A key's hash code selects its segment.
+          Threads that add or remove keys in different segments do not
+          wait for each other, and each segment enlarges its own table, so
+          resizing proceeds in parallel across segments instead of stopping
+          every thread.
+          getValue and contains never lock: chain links and values are
+          volatile, and a chain is never changed in a way that would hide
+          an entry from a reader that is traversing it.
+          putIfAbsent, computeIfAbsent, and compute are atomic.
+          getSize is exact only when no other thread is changing the
+          dictionary. Iterators reflect some state of each segment at or
+          after the time they reach it, and never throw
+          ConcurrentModificationException.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class ConcurrentHashedDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   private final Segment<K, V>[] segments;               // Size is a power of 2
+   private final int segmentShift;                       // Shift that selects a segment from a hash
+   private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+   private static final int MAX_SEGMENTS = 1 << 16;
+   private static final int DEFAULT_CAPACITY = 16;
+   private static final double MAX_LOAD_FACTOR = 0.75;   // Average chain length allowed per segment
+
+   public ConcurrentHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity   The number of entries the dictionary should
+                                hold before any table is enlarged.
+       @param concurrencyLevel  The number of threads expected to change the
+                                dictionary at the same time. */
+   public ConcurrentHashedDictionary(int initialCapacity, int concurrencyLevel)
+   {
+      if ( (initialCapacity < 0) || (concurrencyLevel <= 0) )
+         throw new IllegalArgumentException("Capacity and concurrency level must be positive.");
+      if (concurrencyLevel > MAX_SEGMENTS)
+         concurrencyLevel = MAX_SEGMENTS;
+
+      int numberOfSegments = 1;
+      int shift = 32;
+      while (numberOfSegments < concurrencyLevel)
+      {
+         numberOfSegments = numberOfSegments + numberOfSegments;
+         shift--;
+      } // end while
+      segmentShift = shift;
+
+      int segmentCapacity = (initialCapacity + numberOfSegments - 1) / numberOfSegments;
+      int segmentSize = 2;
+      while (segmentSize < segmentCapacity / MAX_LOAD_FACTOR)
+         segmentSize = segmentSize + segmentSize;
+
+      segments = newSegmentArray(numberOfSegments);
+      for (int index = 0; index < numberOfSegments; index++)
+         segments[index] = new Segment<>(segmentSize);
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      checkEntry(key, value);
+      int hash = hash(key);
+      return segmentFor(hash).put(key, hash, value, false);
+   } // end add
+
+   /** Adds a new entry to this dictionary unless its search key is already
+       in the dictionary, as a single atomic action.
+       @param key    An object search key of the new entry.
+       @param value  An object associated with the search key.
+       @return  Either null if the new entry was added to the dictionary
+                or the value that is associated with key. */
+   public V putIfAbsent(K key, V value)
+   {
+      checkEntry(key, value);
+      int hash = hash(key);
+      return segmentFor(hash).put(key, hash, value, true);
+   } // end putIfAbsent
+
+   /** Retrieves the value associated with a search key, first computing
+       and adding it if the key is not in this dictionary. The computation
+       happens at most once per absent key, while other threads that
+       change the same segment wait.
+       @param key       An object search key.
+       @param function  Computes a value from key; can return null to add
+                        no entry.
+       @return  The value now associated with key, or null if none. */
+   public V computeIfAbsent(K key, Function<? super K, ? extends V> function)
+   {
+      if ((key == null) || (function == null))
+         throw new IllegalArgumentException("Key and function cannot be null.");
+      V value = getValue(key);
+      if (value == null)
+      {
+         int hash = hash(key);
+         value = segmentFor(hash).compute(key, hash, (k, oldValue) ->
+                     (oldValue == null) ? function.apply(k) : oldValue);
+      } // end if
+
+      return value;
+   } // end computeIfAbsent
+
+   /** Replaces the value associated with a search key by one computed from
+       the key and its current value, as a single atomic action.
+       @param key       An object search key.
+       @param function  Computes a new value from key and its current
+                        value, which is null if key is absent. Returning
+                        null removes the entry.
+       @return  The value now associated with key, or null if none. */
+   public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function)
+   {
+      if ((key == null) || (function == null))
+         throw new IllegalArgumentException("Key and function cannot be null.");
+      int hash = hash(key);
+      return segmentFor(hash).compute(key, hash, function);
+   } // end compute
+
+   public V remove(K key)
+   {
+      int hash = hash(key);
+      return segmentFor(hash).remove(key, hash);
+   } // end remove
+
+   public V getValue(K key)
+   {
+      int hash = hash(key);
+      return segmentFor(hash).get(key, hash);
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return getValue(key) != null;
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return getSize() == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      long sum = 0;
+      for (Segment<K, V> segment : segments)
+         sum = sum + segment.count;
+
+      return (int)Math.min(sum, Integer.MAX_VALUE);
+   } // end getSize
+
+   public void clear()
+   {
+      for (Segment<K, V> segment : segments)
+         segment.clear();
+   } // end clear
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   private Segment<K, V> segmentFor(int hash)
+   {
+      // The high-order bits choose the segment; the low-order bits, the chain
+      return segments[(segmentShift == 32) ? 0 : (hash >>> segmentShift)];
+   } // end segmentFor
+
+   private static <K, V> void checkEntry(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+   } // end checkEntry
+
+   // Returns a new array of the given number of null segments.
+   private static <K, V> Segment<K, V>[] newSegmentArray(int length)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Segment<K, V>[] result = (Segment<K, V>[])new Segment[length];
+      return result;
+   } // end newSegmentArray
+
+   // Spreads the bits of key's hash code (the finalization step of MurmurHash3).
+   private static int hash(Object key)
+   {
+      int h = key.hashCode();
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end hash
+
+   // A hash table that holds part of the dictionary. Changes lock the
+   // segment; reads do not.
+   private static final class Segment<K, V>
+   {
+      private final ReentrantLock lock = new ReentrantLock();  // Taken by changes only
+      private volatile AtomicReferenceArray<Node<K, V>> table; // Size is a power of 2
+      private volatile int count;                              // Number of entries
+
+      private Segment(int tableSize)
+      {
+         table = new AtomicReferenceArray<>(tableSize);
+         count = 0;
+      } // end constructor
+
+      // Returns the value associated with key, or null. Does not lock.
+      private V get(K key, int hash)
+      {
+         AtomicReferenceArray<Node<K, V>> currentTable = table;
+         Node<K, V> node = currentTable.get(hash & (currentTable.length() - 1));
+         while (node != null)
+         {
+            if ((node.hash == hash) && key.equals(node.key))
+               return node.value;
+            node = node.next;
+         } // end while
+
+         return null;
+      } // end get
+
+      private V put(K key, int hash, V value, boolean onlyIfAbsent)
+      {
+         lock.lock();
+         try
+         {
+            AtomicReferenceArray<Node<K, V>> currentTable = table;
+            int index = hash & (currentTable.length() - 1);
+            Node<K, V> first = currentTable.get(index);
+            for (Node<K, V> node = first; node != null; node = node.next)
+            {
+               if ((node.hash == hash) && key.equals(node.key))
+               { // Key found
+                  V oldValue = node.value;
+                  if (!onlyIfAbsent)
+                     node.value = value;
+                  return oldValue;
+               } // end if
+            } // end for
+
+            // Key not found; publish a new node at the beginning of the chain
+            currentTable.set(index, new Node<>(hash, key, value, first));
+            count = count + 1;
+            if (count > MAX_LOAD_FACTOR * currentTable.length())
+               enlargeTable();
+            return null;
+         }
+         finally
+         {
+            lock.unlock();
+         } // end try
+      } // end put
+
+      private V compute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> function)
+      {
+         lock.lock();
+         try
+         {
+            AtomicReferenceArray<Node<K, V>> currentTable = table;
+            int index = hash & (currentTable.length() - 1);
+            Node<K, V> first = currentTable.get(index);
+            Node<K, V> nodeBefore = null;
+            Node<K, V> node = first;
+            while ( (node != null) && !((node.hash == hash) && key.equals(node.key)) )
+            {
+               nodeBefore = node;
+               node = node.next;
+            } // end while
+
+            V oldValue = (node == null) ? null : node.value;
+            V newValue = function.apply(key, oldValue);
+            if (node != null)
+            {
+               if (newValue != null)
+                  node.value = newValue;
+               else
+                  unlink(currentTable, index, nodeBefore, node);
+            }
+            else if (newValue != null)
+            {
+               currentTable.set(index, new Node<>(hash, key, newValue, first));
+               count = count + 1;
+               if (count > MAX_LOAD_FACTOR * currentTable.length())
+                  enlargeTable();
+            } // end if
+
+            return newValue;
+         }
+         finally
+         {
+            lock.unlock();
+         } // end try
+      } // end compute
+
+      private V remove(K key, int hash)
+      {
+         lock.lock();
+         try
+         {
+            AtomicReferenceArray<Node<K, V>> currentTable = table;
+            int index = hash & (currentTable.length() - 1);
+            Node<K, V> nodeBefore = null;
+            Node<K, V> node = currentTable.get(index);
+            while ( (node != null) && !((node.hash == hash) && key.equals(node.key)) )
+            {
+               nodeBefore = node;
+               node = node.next;
+            } // end while
+
+            V removedValue = null;
+            if (node != null)
+            {
+               removedValue = node.value;
+               unlink(currentTable, index, nodeBefore, node);
+            } // end if
+
+            return removedValue;
+         }
+         finally
+         {
+            lock.unlock();
+         } // end try
+      } // end remove
+
+      // Removes a node from its chain. A reader that has already reached the
+      // node can still follow its next link.
+      // Precondition: This segment is locked.
+      private void unlink(AtomicReferenceArray<Node<K, V>> currentTable, int index,
+                          Node<K, V> nodeBefore, Node<K, V> node)
+      {
+         if (nodeBefore == null)
+            currentTable.set(index, node.next);
+         else
+            nodeBefore.next = node.next;
+         count = count - 1;
+      } // end unlink
+
+      // Doubles the size of this segment's table. The nodes are copied, not
+      // relinked, because readers might still be traversing the old table;
+      // they see the new table once it is published.
+      // Precondition: This segment is locked.
+      private void enlargeTable()
+      {
+         AtomicReferenceArray<Node<K, V>> oldTable = table;
+         int oldSize = oldTable.length();
+         if (oldSize >= (1 << 30))
+            return; // Cannot grow; chains simply get longer
+
+         AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(oldSize + oldSize);
+         int mask = newTable.length() - 1;
+         for (int index = 0; index < oldSize; index++)
+         {
+            for (Node<K, V> node = oldTable.get(index); node != null; node = node.next)
+            {
+               int newIndex = node.hash & mask;
+               newTable.set(newIndex, new Node<>(node.hash, node.key, node.value,
+                                                 newTable.get(newIndex)));
+            } // end for
+         } // end for
+
+         table = newTable;
+      } // end enlargeTable
+
+      private void clear()
+      {
+         lock.lock();
+         try
+         {
+            table = new AtomicReferenceArray<>(table.length());
+            count = 0;
+         }
+         finally
+         {
+            lock.unlock();
+         } // end try
+      } // end clear
+   } // end Segment
+
+   private static final class Node<K, V>
+   {
+      final int hash;                 // Mixed hash code of key
+      final K key;
+      volatile V value;
+      volatile Node<K, V> next;       // Next node in chain
+
+      Node(int keyHash, K searchKey, V dataValue, Node<K, V> nextNode)
+      {
+         hash = keyHash;
+         key = searchKey;
+         value = dataValue;
+         next = nextNode;
+      } // end constructor
+   } // end Node
+
+   // Traverses each segment's table as it is when the traversal reaches it.
+   private abstract class NodeIterator
+   {
+      private int segmentIndex;                      // Next segment to visit
+      private AtomicReferenceArray<Node<K, V>> table; // Table being traversed
+      private int tableIndex;                        // Next location of table
+      private Node<K, V> nextNode;                   // Next node to return
+
+      private NodeIterator()
+      {
+         segmentIndex = 0;
+         table = null;
+         tableIndex = 0;
+         nextNode = null;
+         advance();
+      } // end default constructor
+
+      // Finds the next node, moving to later locations and segments as needed.
+      private void advance()
+      {
+         if (nextNode != null)
+            nextNode = nextNode.next;
+
+         while (nextNode == null)
+         {
+            if ( (table != null) && (tableIndex < table.length()) )
+            {
+               nextNode = table.get(tableIndex);
+               tableIndex++;
+            }
+            else if (segmentIndex < segments.length)
+            {
+               table = segments[segmentIndex].table;
+               segmentIndex++;
+               tableIndex = 0;
+            }
+            else
+               return; // No more nodes
+         } // end while
+      } // end advance
+
+      public boolean hasNext()
+      {
+         return nextNode != null;
+      } // end hasNext
+
+      Node<K, V> nextNode()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         Node<K, V> result = nextNode;
+         advance();
+         return result;
+      } // end nextNode
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end NodeIterator
+
+   private class KeyIterator extends NodeIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         return nextNode().key;
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends NodeIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return nextNode().value;
+      } // end next
+   } // end ValueIterator
+} // end ConcurrentHashedDictionary
@@ -0,0 +1,515 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements the ADT dictionary by using bucketized cuckoo
+   hashing.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: The table is divided into buckets of 4 locations. Each key has
+          two candidate buckets, computed by two hash functions, and is
+          always in one of them or in a small stash. So a search examines
+          at most 8 locations plus the stash, however full the table is:
+          its worst-case time is O(1).
+          Each location caches its key's hash code, which a search compares
+          before calling equals.
+          To add a key whose buckets are both full, an entry is moved from
+          one of them to its other bucket, which can move another entry,
+          and so on, up to MAX_DISPLACEMENTS times. An entry that still has
+          no place goes into the stash; when the stash is full, the table
+          is enlarged. Only if the table is less than half full, which
+          happens when more than 8 keys share a hash code, does the stash
+          grow instead; searches then take longer.
+          Removal simply empties a location, so no location is ever in a
+          removed state.
+          The table can be 90% full.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class CuckooHashedDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   // The dictionary:
+   private int numberOfEntries;
+   private static final int DEFAULT_CAPACITY = 14;
+
+   // The hash table:
+   private K[] keys;                                      // BUCKET_SIZE locations per bucket; null if empty
+   private V[] values;                                    // Parallel to keys
+   private int[] hashes;                                  // Parallel to keys
+   private int bucketMask;                                // Number of buckets - 1; a power of 2 - 1
+   private static final int BUCKET_SIZE = 4;
+   private static final int MAX_BUCKETS = 1 << 28;
+   private static final double MAX_LOAD_FACTOR = 0.9;     // Fraction of locations that can be filled
+   private static final int MAX_DISPLACEMENTS = 256;      // Length of the longest displacement path
+
+   // The stash:
+   private K[] stashKeys;
+   private V[] stashValues;
+   private int[] stashHashes;
+   private int stashSize;
+   private static final int STASH_CAPACITY = 4;           // Initial size of the stash
+
+   // An entry that could be placed neither in the table nor in the stash:
+   private K homelessKey;
+   private V homelessValue;
+   private int homelessHash;
+
+   private int randomState = 0x2545F491;                  // Chooses entries to displace
+
+   public CuckooHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged. */
+   public CuckooHashedDictionary(int initialCapacity)
+   {
+      if (initialCapacity < DEFAULT_CAPACITY)
+         initialCapacity = DEFAULT_CAPACITY;
+      else if (initialCapacity > MAX_LOAD_FACTOR * MAX_BUCKETS * BUCKET_SIZE)
+         throw new IllegalStateException("Attempt to create a dictionary " +
+                                         "whose capacity is larger than " +
+                                         (int)(MAX_LOAD_FACTOR * MAX_BUCKETS * BUCKET_SIZE));
+      int numberOfBuckets = 2;
+      while (MAX_LOAD_FACTOR * numberOfBuckets * BUCKET_SIZE < initialCapacity)
+         numberOfBuckets = numberOfBuckets + numberOfBuckets;
+
+      allocateTable(numberOfBuckets);
+      stashKeys = newKeyArray(STASH_CAPACITY);
+      stashValues = newValueArray(STASH_CAPACITY);
+      stashHashes = new int[STASH_CAPACITY];
+      stashSize = 0;
+      numberOfEntries = 0;
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      int hash = hash(key);
+      int location = locate(key, hash);
+      if (location >= 0)
+      { // Key found in table; replace its value
+         V oldValue = values[location];
+         values[location] = value;
+         return oldValue;
+      } // end if
+
+      int stashIndex = locateInStash(key, hash);
+      if (stashIndex >= 0)
+      { // Key found in stash; replace its value
+         V oldValue = stashValues[stashIndex];
+         stashValues[stashIndex] = value;
+         return oldValue;
+      } // end if
+
+      numberOfEntries++;
+      if (numberOfEntries > MAX_LOAD_FACTOR * keys.length)
+      {
+         homelessKey = key;
+         homelessValue = value;
+         homelessHash = hash;
+         enlargeHashTable();
+      }
+      else if (!insert(key, value, hash))
+         enlargeHashTable(); // Stash is full; an entry is homeless
+
+      return null;
+   } // end add
+
+   public V remove(K key)
+   {
+      int hash = hash(key);
+      V removedValue = null;
+      int location = locate(key, hash);
+      if (location >= 0)
+      {
+         removedValue = values[location];
+         keys[location] = null;
+         values[location] = null;
+         numberOfEntries--;
+         if (stashSize > 0)
+            unstash(); // The freed location might take a stashed entry
+      }
+      else
+      {
+         int stashIndex = locateInStash(key, hash);
+         if (stashIndex >= 0)
+         {
+            removedValue = stashValues[stashIndex];
+            removeFromStash(stashIndex);
+            numberOfEntries--;
+         } // end if
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      int hash = hash(key);
+      int location = locate(key, hash);
+      if (location >= 0)
+         return values[location];
+
+      int stashIndex = locateInStash(key, hash);
+      if (stashIndex >= 0)
+         return stashValues[stashIndex];
+      else
+         return null;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      int hash = hash(key);
+      return (locate(key, hash) >= 0) || (locateInStash(key, hash) >= 0);
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      for (int location = 0; location < keys.length; location++)
+      {
+         keys[location] = null;
+         values[location] = null;
+      } // end for
+
+      while (stashSize > 0)
+         removeFromStash(stashSize - 1);
+      numberOfEntries = 0;
+   } // end clear
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   // Returns the location of key in its two buckets, or -1 if it is not there.
+   private int locate(K key, int hash)
+   {
+      int bucket = firstBucket(hash);
+      int location = locateInBucket(bucket, key, hash);
+      if (location < 0)
+         location = locateInBucket(alternateBucket(bucket, hash), key, hash);
+
+      return location;
+   } // end locate
+
+   private int locateInBucket(int bucket, K key, int hash)
+   {
+      int start = bucket * BUCKET_SIZE;
+      for (int location = start; location < start + BUCKET_SIZE; location++)
+      {
+         if ((hashes[location] == hash) && key.equals(keys[location]))
+            return location;
+      } // end for
+
+      return -1;
+   } // end locateInBucket
+
+   private int locateInStash(K key, int hash)
+   {
+      for (int index = 0; index < stashSize; index++)
+      {
+         if ((stashHashes[index] == hash) && key.equals(stashKeys[index]))
+            return index;
+      } // end for
+
+      return -1;
+   } // end locateInStash
+
+   // Places a new entry in the table or the stash, displacing other entries
+   // if necessary. Returns false, leaving an entry homeless, if both the
+   // table and the stash are too full.
+   // Precondition: key is not in the dictionary.
+   private boolean insert(K key, V value, int hash)
+   {
+      int bucket = firstBucket(hash);
+      if (placeInBucket(bucket, key, value, hash) ||
+          placeInBucket(alternateBucket(bucket, hash), key, value, hash))
+         return true;
+
+      // Both buckets are full; displace entries along a random path
+      if ((nextRandom() & 1) != 0)
+         bucket = alternateBucket(bucket, hash);
+      for (int count = 0; count < MAX_DISPLACEMENTS; count++)
+      {
+         // Trade places with a random entry in bucket
+         int location = bucket * BUCKET_SIZE + (nextRandom() & (BUCKET_SIZE - 1));
+         K displacedKey = keys[location];
+         V displacedValue = values[location];
+         int displacedHash = hashes[location];
+         keys[location] = key;
+         values[location] = value;
+         hashes[location] = hash;
+         key = displacedKey;
+         value = displacedValue;
+         hash = displacedHash;
+
+         // Move the displaced entry to its other bucket
+         bucket = alternateBucket(bucket, hash);
+         if (placeInBucket(bucket, key, value, hash))
+            return true;
+      } // end for
+
+      if ((stashSize == stashKeys.length) && (numberOfEntries < MAX_LOAD_FACTOR / 2 * keys.length))
+         enlargeStash(); // A larger table would not help
+
+      if (stashSize < stashKeys.length)
+      {
+         stashKeys[stashSize] = key;
+         stashValues[stashSize] = value;
+         stashHashes[stashSize] = hash;
+         stashSize++;
+         return true;
+      } // end if
+
+      homelessKey = key;
+      homelessValue = value;
+      homelessHash = hash;
+      return false;
+   } // end insert
+
+   // Places an entry in an empty location of bucket, if there is one.
+   private boolean placeInBucket(int bucket, K key, V value, int hash)
+   {
+      int start = bucket * BUCKET_SIZE;
+      for (int location = start; location < start + BUCKET_SIZE; location++)
+      {
+         if (keys[location] == null)
+         {
+            keys[location] = key;
+            values[location] = value;
+            hashes[location] = hash;
+            return true;
+         } // end if
+      } // end for
+
+      return false;
+   } // end placeInBucket
+
+   // Moves stashed entries whose buckets have room into the table.
+   private void unstash()
+   {
+      int index = 0;
+      while (index < stashSize)
+      {
+         int bucket = firstBucket(stashHashes[index]);
+         if (placeInBucket(bucket, stashKeys[index], stashValues[index], stashHashes[index]) ||
+             placeInBucket(alternateBucket(bucket, stashHashes[index]),
+                           stashKeys[index], stashValues[index], stashHashes[index]))
+            removeFromStash(index);
+         else
+            index++;
+      } // end while
+   } // end unstash
+
+   private void enlargeStash()
+   {
+      int newSize = 2 * stashKeys.length;
+      stashKeys = Arrays.copyOf(stashKeys, newSize);
+      stashValues = Arrays.copyOf(stashValues, newSize);
+      stashHashes = Arrays.copyOf(stashHashes, newSize);
+   } // end enlargeStash
+
+   private void removeFromStash(int index)
+   {
+      stashSize--;
+      stashKeys[index] = stashKeys[stashSize];
+      stashValues[index] = stashValues[stashSize];
+      stashHashes[index] = stashHashes[stashSize];
+      stashKeys[stashSize] = null;
+      stashValues[stashSize] = null;
+   } // end removeFromStash
+
+   // Moves all entries, including the homeless one, into a larger table.
+   private void enlargeHashTable()
+   {
+      K[] oldKeys = keys;
+      V[] oldValues = values;
+      int[] oldHashes = hashes;
+      int numberOfBuckets = 2 * (bucketMask + 1);
+
+      // Gather the stashed entries and the homeless one
+      int extraSize = stashSize + 1;
+      K[] extraKeys = newKeyArray(extraSize);
+      V[] extraValues = newValueArray(extraSize);
+      int[] extraHashes = new int[extraSize];
+      for (int index = 0; index < stashSize; index++)
+      {
+         extraKeys[index] = stashKeys[index];
+         extraValues[index] = stashValues[index];
+         extraHashes[index] = stashHashes[index];
+      } // end for
+      extraKeys[stashSize] = homelessKey;
+      extraValues[stashSize] = homelessValue;
+      extraHashes[stashSize] = homelessHash;
+      homelessKey = null;
+      homelessValue = null;
+
+      // Insert every entry; rarely, a larger table is needed still
+      boolean done = false;
+      while (!done)
+      {
+         if (numberOfBuckets > MAX_BUCKETS)
+            throw new IllegalStateException("Dictionary has become too large.");
+         allocateTable(numberOfBuckets);
+         while (stashSize > 0)
+            removeFromStash(stashSize - 1);
+
+         done = true;
+         for (int location = 0; done && (location < oldKeys.length); location++)
+         {
+            if (oldKeys[location] != null)
+               done = insert(oldKeys[location], oldValues[location], oldHashes[location]);
+         } // end for
+         for (int index = 0; done && (index < extraSize); index++)
+            done = insert(extraKeys[index], extraValues[index], extraHashes[index]);
+
+         numberOfBuckets = numberOfBuckets + numberOfBuckets;
+      } // end while
+
+      homelessKey = null;
+      homelessValue = null;
+   } // end enlargeHashTable
+
+   private void allocateTable(int numberOfBuckets)
+   {
+      keys = newKeyArray(numberOfBuckets * BUCKET_SIZE);
+      values = newValueArray(numberOfBuckets * BUCKET_SIZE);
+      hashes = new int[numberOfBuckets * BUCKET_SIZE];
+      bucketMask = numberOfBuckets - 1;
+   } // end allocateTable
+
+   private int firstBucket(int hash)
+   {
+      return hash & bucketMask;
+   } // end firstBucket
+
+   // Returns a key's other bucket. The second hash function depends only on
+   // the hash code, so applying this method to either bucket gives the other.
+   private int alternateBucket(int bucket, int hash)
+   {
+      int offset = (Integer.rotateLeft(hash, 16) * 0x9e3779b9) >>> 1;
+      return bucket ^ ((offset & bucketMask) | 1); // Never 0, so never bucket
+   } // end alternateBucket
+
+   // Spreads the bits of key's hash code (the finalization step of MurmurHash3).
+   private static int hash(Object key)
+   {
+      int h = key.hashCode();
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end hash
+
+   // Returns a pseudorandom int (xorshift).
+   private int nextRandom()
+   {
+      randomState = randomState ^ (randomState << 13);
+      randomState = randomState ^ (randomState >>> 17);
+      randomState = randomState ^ (randomState << 5);
+      return randomState;
+   } // end nextRandom
+
+   private K[] newKeyArray(int size)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      K[] temp = (K[])new Object[size];
+      return temp;
+   } // end newKeyArray
+
+   private V[] newValueArray(int size)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      V[] temp = (V[])new Object[size];
+      return temp;
+   } // end newValueArray
+
+   // Traverses the table's full locations, and then the stash.
+   private class TableIterator
+   {
+      private int currentLocation;  // Current position in table, then in stash
+      private int numberLeft;       // Number of entries left in iteration
+
+      private TableIterator()
+      {
+         currentLocation = 0;
+         numberLeft = numberOfEntries;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      // Returns the location of the next entry; a location past the table
+      // is in the stash.
+      int nextLocation()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         // Skip empty table locations
+         while ((currentLocation < keys.length) && (keys[currentLocation] == null))
+            currentLocation++;
+
+         numberLeft--;
+         currentLocation++;
+         return currentLocation - 1;
+      } // end nextLocation
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end TableIterator
+
+   private class KeyIterator extends TableIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         int location = nextLocation();
+         if (location < keys.length)
+            return keys[location];
+         else
+            return stashKeys[location - keys.length];
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends TableIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         int location = nextLocation();
+         if (location < values.length)
+            return values[location];
+         else
+            return stashValues[location - values.length];
+      } // end next
+   } // end ValueIterator
+} // end CuckooHashedDictionary
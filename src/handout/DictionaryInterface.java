@@ -56,4 +56,51 @@ public interface DictionaryInterface<K, V>
    
    /** Removes all entries from this dictionary. */
    public void clear();
+
+   /** Adds a batch of new entries to this dictionary. If a given search key
+       already exists in the dictionary, replaces the corresponding value.
+       @param keys    An array of search keys.
+       @param values  An array of the values associated with keys.
+       @return  The number of entries that were new. */
+   public default int addAll(K[] keys, V[] values)
+   {
+      if (keys.length != values.length)
+         throw new IllegalArgumentException("Keys and values must be arrays of the same length.");
+      int numberAdded = 0;
+      for (int index = 0; index < keys.length; index++)
+      {
+         if (add(keys[index], values[index]) == null)
+            numberAdded++;
+      } // end for
+
+      return numberAdded;
+   } // end addAll
+
+   /** Retrieves from this dictionary the values associated with a batch
+       of search keys.
+       @param keys     An array of search keys.
+       @param results  An array at least as long as keys; results[i] is set to
+                       either the value associated with keys[i] or null. */
+   public default void getAll(K[] keys, V[] results)
+   {
+      if (results.length < keys.length)
+         throw new IllegalArgumentException("Results array is too short.");
+      for (int index = 0; index < keys.length; index++)
+         results[index] = getValue(keys[index]);
+   } // end getAll
+
+   /** Removes the entries for a batch of search keys from this dictionary.
+       @param keys  An array of search keys.
+       @return  The number of entries that were removed. */
+   public default int removeAll(K[] keys)
+   {
+      int numberRemoved = 0;
+      for (int index = 0; index < keys.length; index++)
+      {
+         if (remove(keys[index]) != null)
+            numberRemoved++;
+      } // end for
+
+      return numberRemoved;
+   } // end removeAll
 } // end DictionaryInterface
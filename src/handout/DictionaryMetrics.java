@@ -0,0 +1,213 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+   A class of counters that describe how a hash table behaves: the number
+   of locations its searches probe, how often it is resized and for how
+   long, and how full it is.
+   Notes: A dictionary records nothing until its metrics are enabled;
+          while they are disabled, each operation tests one field.
+          The probe-length histogram counts only one operation in every
+          sampleInterval, so it stays cheap to maintain.
+          The counters are not synchronized. A JMX client that reads them
+          while the dictionary is in use sees approximate values.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class DictionaryMetrics implements DictionaryMetricsMBean
+{
+   private boolean enabled;
+   private final DoubleSupplier loadFactor;      // Reads the dictionary's load factor
+   private final DoubleSupplier removedFraction; // Reads its fraction of removed locations
+
+   // Operations:
+   private long operationCount;
+   private long probeCount;                      // Locations examined, including home
+   private int maxProbeLength;
+
+   // Sampled histogram:
+   private final long[] histogram;               // Last bucket counts all longer probes
+   private final int sampleInterval;             // A power of 2
+   private static final int HISTOGRAM_BUCKETS = 33;
+   private static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+   // Resizing:
+   private long resizeCount;
+   private long resizeNanos;
+   private long purgeCount;                      // Rehashes that cleared removed locations
+
+   private ObjectName registeredName;            // Name in the MBean server, or null
+
+   DictionaryMetrics(DoubleSupplier loadFactor, DoubleSupplier removedFraction)
+   {
+      this.loadFactor = loadFactor;
+      this.removedFraction = removedFraction;
+      histogram = new long[HISTOGRAM_BUCKETS];
+      sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+      enabled = false;
+   } // end constructor
+
+   /** Sees whether the dictionary is recording these metrics.
+       @return  True if recording is enabled. */
+   public boolean isEnabled()
+   {
+      return enabled;
+   } // end isEnabled
+
+   /** Gets the number of adds, removes, and retrievals recorded.
+       @return  The number of operations. */
+   public long getOperationCount()
+   {
+      return operationCount;
+   } // end getOperationCount
+
+   /** Gets the total number of table locations that the recorded
+       operations examined.
+       @return  The number of probes. */
+   public long getProbeCount()
+   {
+      return probeCount;
+   } // end getProbeCount
+
+   /** Gets the average number of locations examined per operation;
+       1.0 means that every key was at its home location.
+       @return  The average number of probes, or 0 if there are none. */
+   public double getAverageProbesPerOperation()
+   {
+      if (operationCount == 0)
+         return 0.0;
+      else
+         return (double)probeCount / operationCount;
+   } // end getAverageProbesPerOperation
+
+   /** Gets the longest probe recorded.
+       @return  The greatest number of locations past home examined. */
+   public int getMaxProbeLength()
+   {
+      return maxProbeLength;
+   } // end getMaxProbeLength
+
+   /** Gets a histogram of probe lengths, sampled from the operations.
+       @return  An array whose element d counts sampled operations that
+                examined d locations past home; the last element also
+                counts all longer probes. */
+   public long[] getProbeLengthHistogram()
+   {
+      return Arrays.copyOf(histogram, histogram.length);
+   } // end getProbeLengthHistogram
+
+   /** Gets the number of operations per histogram sample.
+       @return  The sample interval. */
+   public int getSampleInterval()
+   {
+      return sampleInterval;
+   } // end getSampleInterval
+
+   /** Gets the number of times the hash table was enlarged.
+       @return  The number of resizes. */
+   public long getResizeCount()
+   {
+      return resizeCount;
+   } // end getResizeCount
+
+   /** Gets the total time spent enlarging the hash table. An incremental
+       resize counts only the time to allocate the new table.
+       @return  The time in milliseconds. */
+   public double getTotalResizeMillis()
+   {
+      return resizeNanos / 1_000_000.0;
+   } // end getTotalResizeMillis
+
+   /** Gets the number of times the hash table was rehashed into a new
+       table of the same size to clear locations in the removed state.
+       @return  The number of purges. */
+   public long getPurgeCount()
+   {
+      return purgeCount;
+   } // end getPurgeCount
+
+   /** Gets the current fraction of the hash table that contains entries.
+       @return  The load factor. */
+   public double getLoadFactor()
+   {
+      return loadFactor.getAsDouble();
+   } // end getLoadFactor
+
+   /** Gets the current fraction of the hash table in the removed state.
+       @return  The fraction of removed locations. */
+   public double getRemovedFraction()
+   {
+      return removedFraction.getAsDouble();
+   } // end getRemovedFraction
+
+   /** Sets all counts to zero. */
+   public void reset()
+   {
+      operationCount = 0;
+      probeCount = 0;
+      maxProbeLength = 0;
+      Arrays.fill(histogram, 0);
+      resizeCount = 0;
+      resizeNanos = 0;
+      purgeCount = 0;
+   } // end reset
+
+   /** Registers these metrics with the platform MBean server, so that JMX
+       clients can read them.
+       @param name  A name that distinguishes this dictionary from others.
+       @throws JMException  if the name is not valid or is already registered. */
+   public void registerMBean(String name) throws JMException
+   {
+      ObjectName objectName = new ObjectName("handout:type=HashedDictionary,name=" +
+                                             ObjectName.quote(name));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      server.registerMBean(this, objectName);
+      registeredName = objectName;
+   } // end registerMBean
+
+   /** Removes these metrics from the platform MBean server, if they
+       are registered.
+       @throws JMException  if the server cannot remove them. */
+   public void unregisterMBean() throws JMException
+   {
+      if (registeredName != null)
+      {
+         ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+         registeredName = null;
+      } // end if
+   } // end unregisterMBean
+
+   void setEnabled(boolean enabled)
+   {
+      this.enabled = enabled;
+   } // end setEnabled
+
+   // Records an operation whose search examined probeLength locations past home.
+   void recordOperation(int probeLength)
+   {
+      operationCount++;
+      probeCount = probeCount + probeLength + 1;
+      if (probeLength > maxProbeLength)
+         maxProbeLength = probeLength;
+
+      if ((operationCount & (sampleInterval - 1)) == 0)
+         histogram[Math.min(probeLength, histogram.length - 1)]++;
+   } // end recordOperation
+
+   void recordResize(long nanos)
+   {
+      resizeCount++;
+      resizeNanos = resizeNanos + nanos;
+   } // end recordResize
+
+   void recordPurge()
+   {
+      purgeCount++;
+   } // end recordPurge
+} // end DictionaryMetrics
@@ -0,0 +1,25 @@
+/**
+   The management interface through which JMX clients, such as JConsole,
+   read the metrics of a dictionary.
+   @see DictionaryMetrics
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public interface DictionaryMetricsMBean
+{
+   public boolean isEnabled();
+   public long getOperationCount();
+   public long getProbeCount();
+   public double getAverageProbesPerOperation();
+   public int getMaxProbeLength();
+   public long[] getProbeLengthHistogram();
+   public int getSampleInterval();
+   public long getResizeCount();
+   public double getTotalResizeMillis();
+   public long getPurgeCount();
+   public double getLoadFactor();
+   public double getRemovedFraction();
+   public void reset();
+} // end DictionaryMetricsMBean
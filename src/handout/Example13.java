@@ -32,6 +32,10 @@ public class Example13
 		getModeNoIterator(L1);
 		getModeNoIterator(L2);
 
+		System.out.println("\nCalculating mode with a hashed multiset: ");
+		getModeHashed(L1);
+		getModeHashed(L2);
+
 		System.out.println("\nIterator with destructive calculation: ");
 		getModeDestructive(L1);
 		getModeDestructive(L2);
@@ -131,6 +135,23 @@ public class Example13
 						   " occurrences ");
 	}
 
+	// All of the methods above compare each element with many others, so
+	// they take time proportional to N^2.  This version instead counts each
+	// element in a HashedMultiset, which finds an element's count in constant
+	// time on average.  One pass through the list therefore counts every
+	// element, and getMode then looks once at each distinct element.  The
+	// whole calculation takes time proportional to N, and the list is not
+	// changed.
+	public static void getModeHashed(List<Integer> L)
+	{
+		HashedMultiset<Integer> counts = new HashedMultiset<Integer>();
+		for (Integer curr : L)
+			counts.add(curr);
+		Integer theMode = counts.getMode();
+		System.out.println("The mode is " + theMode + " with " +
+						   counts.getFrequencyOf(theMode) + " occurrences ");
+	}
+
 	// A drawback of the methods above is that they have to consider all of 
 	// elements in the list many times. The method below improves the efficiency
 	// somewhat by removing elements as they are counted.  This way, each
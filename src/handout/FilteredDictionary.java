@@ -0,0 +1,176 @@
+import java.util.Iterator;
+
+/**
+   A class that places a Bloom filter in front of another dictionary, so
+   that a search for an absent key usually ends without searching the
+   dictionary.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: Every key added to the dictionary is also added to the filter.
+          getValue, contains, and remove consult the filter first and
+          search the dictionary only if the filter might contain the key.
+          This helps most when most searches fail and a failed search in
+          the dictionary is expensive, as in a large, full hash table.
+          A Bloom filter cannot forget a key, so removed keys become false
+          positives. The filter is rebuilt from the dictionary's keys when
+          the number of removals since the last rebuild exceeds the size
+          of the dictionary, or when the number of keys added exceeds the
+          number the filter was sized for.
+          Do not change the dictionary except through this class; removing
+          an entry through an iterator is safe, but adding one directly
+          makes the filter wrong.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class FilteredDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   private final DictionaryInterface<K, V> dictionary;
+   private final double falsePositiveRate;
+   private BloomFilter<K> filter;
+   private int expectedCount;                 // Number of keys filter was sized for
+   private int removalCount;                  // Removals since filter was built
+
+   // Statistics:
+   private long filteredCount;                // Searches the filter ended
+
+   private static final int MIN_EXPECTED_COUNT = 64;
+   private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+   /** Creates a filtered dictionary whose filter has a false-positive
+       rate of 1%.
+       @param dictionary  An empty dictionary to search.
+       @param expectedCount  The number of entries expected. */
+   public FilteredDictionary(DictionaryInterface<K, V> dictionary, int expectedCount)
+   {
+      this(dictionary, expectedCount, DEFAULT_FALSE_POSITIVE_RATE);
+   } // end constructor
+
+   /** Creates a filtered dictionary.
+       @param dictionary  A dictionary to search; any entries it already
+                          contains are added to the filter.
+       @param expectedCount  The number of entries expected.
+       @param falsePositiveRate  The desired fraction of searches for absent
+                                 keys that the filter fails to end;
+                                 greater than 0 and less than 1. */
+   public FilteredDictionary(DictionaryInterface<K, V> dictionary, int expectedCount,
+                             double falsePositiveRate)
+   {
+      if (dictionary == null)
+         throw new IllegalArgumentException("Dictionary cannot be null.");
+      this.dictionary = dictionary;
+      this.falsePositiveRate = falsePositiveRate;
+      this.expectedCount = Math.max(expectedCount, MIN_EXPECTED_COUNT);
+      rebuildFilter();
+      filteredCount = 0;
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      V oldValue = dictionary.add(key, value);
+      if (oldValue == null)
+      {
+         filter.add(key);
+         if (filter.getAdditionCount() > expectedCount)
+         {
+            expectedCount = 2 * Math.max(expectedCount, dictionary.getSize());
+            rebuildFilter();
+         } // end if
+      } // end if
+
+      return oldValue;
+   } // end add
+
+   public V remove(K key)
+   {
+      if (!filter.mightContain(key))
+      {
+         filteredCount++;
+         return null;
+      } // end if
+
+      V removedValue = dictionary.remove(key);
+      if (removedValue != null)
+      {
+         removalCount++;
+         if (removalCount > dictionary.getSize())
+            rebuildFilter();
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      if (filter.mightContain(key))
+         return dictionary.getValue(key);
+
+      filteredCount++;
+      return null;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      if (filter.mightContain(key))
+         return dictionary.contains(key);
+
+      filteredCount++;
+      return false;
+   } // end contains
+
+   public Iterator<K> getKeyIterator()
+   {
+      return dictionary.getKeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return dictionary.getValueIterator();
+   } // end getValueIterator
+
+   public boolean isEmpty()
+   {
+      return dictionary.isEmpty();
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return dictionary.getSize();
+   } // end getSize
+
+   public void clear()
+   {
+      dictionary.clear();
+      filter.clear();
+      removalCount = 0;
+   } // end clear
+
+   /** Gets the number of searches that the filter ended without
+       searching the dictionary.
+       @return  The number of filtered searches. */
+   public long getFilteredCount()
+   {
+      return filteredCount;
+   } // end getFilteredCount
+
+   /** Estimates the fraction of searches for absent keys that the filter
+       currently fails to end.
+       @return  The estimated false-positive rate of the filter. */
+   public double getEstimatedFalsePositiveRate()
+   {
+      return filter.getEstimatedFalsePositiveRate();
+   } // end getEstimatedFalsePositiveRate
+
+   // Creates a new filter that contains exactly the keys in the dictionary.
+   private void rebuildFilter()
+   {
+      int count = Math.max(expectedCount, dictionary.getSize());
+      filter = new BloomFilter<>(count, falsePositiveRate);
+      Iterator<K> keyIterator = dictionary.getKeyIterator();
+      while (keyIterator.hasNext())
+         filter.add(keyIterator.next());
+
+      expectedCount = count;
+      removalCount = 0;
+   } // end rebuildFilter
+} // end FilteredDictionary
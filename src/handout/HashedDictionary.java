@@ -1,14 +1,64 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
    A class that implements the ADT dictionary by using hashing and
    linear probing to resolve collisions.
    The dictionary is unsorted and has distinct search keys.
    Notes: Uses probe for add, remove, and getValue.
-          Uses linear probing, but includes code for quadratic probing.
+          Uses linear probing by default; quadratic probing, double hashing,
+          and Robin Hood hashing can be chosen when the dictionary is created,
+          as can a Hasher to compute hash codes in place of hashCode.
+          Removal under linear probing and Robin Hood hashing shifts the
+          entries that follow back instead of leaving the removed state
+          behind. Otherwise, the table is rehashed into a new table of the
+          same size once too many locations are in the removed state.
           Has a display method for illustration and testing.
+          Each entry caches its key's hash code, so rehashing never calls
+          hashCode. The codes are also kept in an array parallel to the
+          hash table, so a probe compares codes without reading the entries
+          it passes, and reads an entry and calls equals only on a match.
+          The batch operations size the table once and then visit the keys
+          in order of their home locations.
+          An optional large-table mode uses power-of-2 table sizes and
+          mixes hash codes, so the table can grow well past MAX_CAPACITY.
+          An optional incremental-resize mode spreads the rehashing of an
+          enlarged table over the operations that follow the enlargement.
+          The iterators are fail-fast and can remove entries. An entry
+          iterator returns keys and values together, and a spliterator
+          divides the table so that a parallel stream can traverse it.
+          Histograms of probe lengths and cluster sizes show how well the
+          hash codes spread the entries over the table. Optional metrics
+          count probes, resizes, and purges as operations occur.
+          A snapshot records the layout of the hash table in a compact
+          binary form; restoring it places each entry back at its location
+          without probing, provided that the keys hash as they did.
   
    @author Frank M. Carrano
    @author Timothy M. Henry
@@ -23,11 +73,72 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
    
    // The hash table:
 	private Entry<K, V>[] hashTable;
+   private int[] hashCodes;                              // hashCodes[i] is the hash code of hashTable[i]
    private int tableSize;                                // Must be prime
    private static final int MAX_SIZE = 2 * MAX_CAPACITY; // Max size of hash table
    private boolean initialized = false;
 	private static final double MAX_LOAD_FACTOR = 0.5;    // Fraction of hash table that can be filled
-	private final Entry<K, V> AVAILABLE = new Entry<>(null, null); // Occupies locations in the hash table in the available state (locations whose entries were removed)
+   private static final double ROBIN_HOOD_LOAD_FACTOR = 0.875; // Default fraction for Robin Hood hashing
+   private final double maxLoadFactor;                   // Fraction of this hash table that can be filled
+	private final Entry<K, V> AVAILABLE = new Entry<>(null, null, 0); // Occupies locations in the hash table in the available state (locations whose entries were removed)
+
+   // Collision resolution:
+   private final ProbeStrategy probeStrategy;
+   private int numberOfRemoved = 0;                      // Number of locations in hashTable that are AVAILABLE
+   private double maxRemovedFraction;                    // Fraction of hash table that can be AVAILABLE
+   private static final double MAX_REMOVED_FRACTION = 0.25; // Default fraction that can be AVAILABLE
+
+   // Large-table mode:
+   private final boolean largeTable;                     // True if table sizes are powers of 2
+   private static final int MAX_LARGE_SIZE = 1 << 30;    // Max size of a large hash table
+
+   // Incremental resizing:
+   private boolean incrementalResize = false;            // True if rehashing is spread over operations
+   private Entry<K, V>[] oldTable = null;                // Table being emptied into hashTable, or null
+   private int[] oldHashCodes = null;                    // Hash codes of the entries in oldTable
+   private int migrationIndex;                           // Next location of oldTable to move
+   private static final int MIGRATION_STEP = 4;          // Locations of oldTable moved per operation
+
+   // Batch operations:
+   private static final int MIN_SORTED_BATCH = 64;       // Smaller batches are not reordered
+
+   // Hashing:
+   private final Hasher<? super K> hasher;               // Computes hash codes, or null to use hashCode
+
+   // Iteration:
+   private int modCount = 0;                             // Number of structural changes, for fail-fast iterators
+
+   // Metrics:
+   private DictionaryMetrics metrics = null;             // Created when first requested
+   private DictionaryMetrics activeMetrics = null;       // metrics if recording is enabled, else null
+
+   // Snapshots:
+   private static final int SNAPSHOT_MAGIC = 0x48445350; // "HDSP"
+   private static final int SNAPSHOT_VERSION = 1;
+   private static final int COMPRESSED = 1;              // Flag in the snapshot header
+   private static final int ENTRY_RECORD = 1;            // Kinds of location records
+   private static final int REMOVED_RECORD = 2;
+   private static final int END_RECORD = 0;
+   private static final int MIN_RECORD_CAPACITY = 1024;  // Records read before arrays grow
+
+   /** The ways in which a HashedDictionary can resolve collisions. */
+   public enum ProbeStrategy
+   {
+      /** Probes consecutive locations. */
+      LINEAR,
+      /** Probes locations at quadratically increasing distances;
+          the load factor can be at most 0.5. */
+      QUADRATIC,
+      /** Probes locations at a fixed distance that a second hash function
+          computes from the key's hash code, so keys that have the same home
+          location usually follow different probe sequences. */
+      DOUBLE_HASHING,
+      /** Probes consecutive locations, but an entry that is farther from
+          its home location takes the place of one that is closer to its
+          own. Each location records how far its entry is from home, so an
+          unsuccessful search can stop early. Tolerates a high load factor. */
+      ROBIN_HOOD
+   } // end ProbeStrategy
    
 	public HashedDictionary()
 	{
@@ -36,19 +147,100 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
    
 	public HashedDictionary(int initialCapacity)
 	{
+		this(initialCapacity, false); // Call next constructor
+	} // end constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged.
+       @param largeTable  True if the hash table should use power-of-2 sizes
+                          and a mixing hash instead of prime sizes. A large
+                          table is not limited to MAX_CAPACITY entries. */
+	public HashedDictionary(int initialCapacity, boolean largeTable)
+	{
+		this(initialCapacity, largeTable, ProbeStrategy.LINEAR); // Call next constructor
+	} // end constructor
+
+   /** Creates an empty dictionary that uses the default load factor for
+       the given probe strategy: 0.5, or 0.875 for Robin Hood hashing.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged.
+       @param largeTable  True if the hash table should use power-of-2 sizes.
+       @param probeStrategy  The way in which collisions are resolved. */
+	public HashedDictionary(int initialCapacity, boolean largeTable,
+                           ProbeStrategy probeStrategy)
+	{
+		this(initialCapacity, largeTable, probeStrategy,
+           (probeStrategy == ProbeStrategy.ROBIN_HOOD) ? ROBIN_HOOD_LOAD_FACTOR
+                                                       : MAX_LOAD_FACTOR);
+	} // end constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged.
+       @param largeTable  True if the hash table should use power-of-2 sizes.
+       @param probeStrategy  The way in which collisions are resolved.
+       @param maxLoadFactor  The fraction of the hash table that can be
+                             filled before the table is enlarged. */
+	public HashedDictionary(int initialCapacity, boolean largeTable,
+                           ProbeStrategy probeStrategy, double maxLoadFactor)
+	{
+		this(initialCapacity, largeTable, probeStrategy, maxLoadFactor, null);
+	} // end constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged.
+       @param largeTable  True if the hash table should use power-of-2 sizes.
+       @param probeStrategy  The way in which collisions are resolved.
+       @param maxLoadFactor  The fraction of the hash table that can be
+                             filled before the table is enlarged.
+       @param hasher  The function that computes the hash codes of keys,
+                      or null to use their hashCode methods. A large table
+                      mixes the hash codes further. */
+	public HashedDictionary(int initialCapacity, boolean largeTable,
+                           ProbeStrategy probeStrategy, double maxLoadFactor,
+                           Hasher<? super K> hasher)
+	{
+      if (probeStrategy == null)
+         throw new IllegalArgumentException("Probe strategy cannot be null.");
+      if ( (maxLoadFactor <= 0) || (maxLoadFactor >= 1) ||
+           ((probeStrategy == ProbeStrategy.QUADRATIC) && (maxLoadFactor > MAX_LOAD_FACTOR)) )
+         throw new IllegalArgumentException("Load factor " + maxLoadFactor +
+                                            " is not valid for " + probeStrategy +
+                                            " probing.");
+      this.largeTable = largeTable;
+      this.probeStrategy = probeStrategy;
+      this.maxLoadFactor = maxLoadFactor;
+      this.hasher = hasher;
+
+      // Entries and removed locations together must leave some locations
+      // null, or a probe for a missing key would never end
+      maxRemovedFraction = Math.min(MAX_REMOVED_FRACTION, (1 - maxLoadFactor) / 2);
       initialCapacity = checkCapacity(initialCapacity);
 		numberOfEntries = 0;    // Dictionary is empty
       
       // Set up hash table:
-		// Initial size of hash table is same as initialCapacity if it is prime;
-		// otherwise increase it until it is prime size
-		int tableSize = getNextPrime(initialCapacity);
-      checkSize(tableSize); // Check that the prime size is not too large
+      int tableSize;
+      if (largeTable)
+      {
+         // Size the table so that initialCapacity entries fit below the
+         // load factor; the size must be a power of 2
+         tableSize = getNextPowerOfTwo((int)Math.ceil(initialCapacity / maxLoadFactor));
+      }
+      else
+      {
+         // Initial size of hash table is same as initialCapacity if it is prime;
+         // otherwise increase it until it is prime size
+         tableSize = getNextPrime(initialCapacity);
+      } // end if
+      checkSize(tableSize); // Check that the size is not too large
 		
 		// The cast is safe because the new array contains null entries
       @SuppressWarnings("unchecked")
       Entry<K, V>[] temp = (Entry<K, V>[])new Entry[tableSize];
       hashTable = temp;
+      hashCodes = new int[tableSize];
 
       initialized = true;
 	} // end constructor
@@ -59,6 +251,7 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
  	public void displayHashTable()
  	{
       checkInitialization();
+      finishMigration();
 		for (int index = 0; index < hashTable.length; index++)
 		{
     	if (hashTable[index] == null)
@@ -70,7 +263,558 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
 		} // end for
       System.out.println();
    } // end displayHashTable
+
+   /** Counts the entries by the number of locations beyond the first that
+       a search for each one examines.
+       @return  An array whose element d is the number of entries found
+                after d + 1 probes, that is, d locations past home. */
+   public int[] getProbeLengthHistogram()
+   {
+      checkInitialization();
+      finishMigration();
+      int[] counts = new int[hashTable.length];
+      int maxLength = 0;
+      for (int index = 0; index < hashTable.length; index++)
+      {
+         if ( (hashTable[index] != null) && (hashTable[index] != AVAILABLE) )
+         {
+            int length = getProbeLength(hashTable, hashCodes[index], index);
+            counts[length]++;
+            maxLength = Math.max(maxLength, length);
+         } // end if
+      } // end for
+
+      return Arrays.copyOf(counts, maxLength + 1);
+   } // end getProbeLengthHistogram
+
+   /** Counts the clusters in the hash table by size. A cluster is a
+       maximal run of adjacent locations that are not null; locations in
+       the removed state count, since probes pass through them.
+       @return  An array whose element s is the number of clusters of
+                s locations. */
+   public int[] getClusterSizeHistogram()
+   {
+      checkInitialization();
+      finishMigration();
+      int[] counts = new int[hashTable.length + 1];
+      int maxSize = 0;
+
+      // Begin at a null location, so that no cluster wraps around the start
+      int start = 0;
+      while ( (start < hashTable.length) && (hashTable[start] != null) )
+         start++;
+
+      int clusterSize = 0;
+      for (int offset = 1; offset <= hashTable.length; offset++)
+      {
+         int index = (start + offset) % hashTable.length;
+         if (hashTable[index] != null)
+            clusterSize++;
+         else if (clusterSize > 0)
+         {
+            counts[clusterSize]++;
+            maxSize = Math.max(maxSize, clusterSize);
+            clusterSize = 0;
+         } // end if
+      } // end for
+
+      if (clusterSize > 0) // Only if there is no null location
+      {
+         counts[clusterSize]++;
+         maxSize = Math.max(maxSize, clusterSize);
+      } // end if
+
+      return Arrays.copyOf(counts, maxSize + 1);
+   } // end getClusterSizeHistogram
+
+   /** Displays the probe-length and cluster-size histograms, and the
+       average number of probes in a successful search. */
+   public void displayHashStatistics()
+   {
+      int[] probeLengths = getProbeLengthHistogram();
+      long totalProbes = 0;
+      System.out.println("Probe length: number of entries");
+      for (int length = 0; length < probeLengths.length; length++)
+      {
+         if (probeLengths[length] > 0)
+            System.out.println(length + ": " + probeLengths[length]);
+         totalProbes = totalProbes + (long)(length + 1) * probeLengths[length];
+      } // end for
+
+      if (numberOfEntries > 0)
+         System.out.println("Average probes per successful search: " +
+                            (double)totalProbes / numberOfEntries);
+
+      int[] clusterSizes = getClusterSizeHistogram();
+      System.out.println("Cluster size: number of clusters");
+      for (int size = 1; size < clusterSizes.length; size++)
+      {
+         if (clusterSizes[size] > 0)
+            System.out.println(size + ": " + clusterSizes[size]);
+      } // end for
+      System.out.println();
+   } // end displayHashStatistics
+
+   // Returns the number of locations past home at which the probe sequence
+   // for the given hash code reaches the given index of table.
+   // Precondition: The probe sequence reaches index.
+   private int getProbeLength(Entry<K, V>[] table, int hash, int index)
+   {
+      int homeIndex = getHomeIndex(table, hash);
+      if ( (probeStrategy == ProbeStrategy.LINEAR) ||
+           (probeStrategy == ProbeStrategy.ROBIN_HOOD) )
+         return (index - homeIndex + table.length) % table.length;
+
+      int probeIndex = homeIndex;
+      int length = 0;
+      int increment = 1;
+      int stepSize = getStepSize(table, hash);
+      while (probeIndex != index)
+      {
+         if (probeStrategy == ProbeStrategy.QUADRATIC)
+         {
+            probeIndex = (probeIndex + increment) % table.length;
+            increment = nextIncrement(increment);
+         }
+         else
+            probeIndex = (probeIndex + stepSize) % table.length;  // Double hashing
+         length++;
+      } // end while
+
+      return length;
+   } // end getProbeLength
+
+   // Records in the metrics an operation whose probe ended at the given index.
+   // A probe that passed a location in the removed state and returned that
+   // location is counted only up to it.
+   private void recordOperation(int hash, int index)
+   {
+      activeMetrics.recordOperation(getProbeLength(hashTable, hash, index));
+   } // end recordOperation
+
+   /** Gets the metrics of this dictionary, which record nothing until
+       they are enabled.
+       @return  The metrics, which can also be registered with JMX. */
+   public DictionaryMetrics getMetrics()
+   {
+      checkInitialization();
+      if (metrics == null)
+      {
+         metrics = new DictionaryMetrics(() -> (double)numberOfEntries / hashTable.length,
+                                         () -> (double)numberOfRemoved / hashTable.length);
+      } // end if
+
+      return metrics;
+   } // end getMetrics
+
+   /** Starts or stops recording metrics. While recording is stopped,
+       operations cost no more than without metrics, apart from a test.
+       @param enabled  True if metrics should be recorded. */
+   public void setMetricsEnabled(boolean enabled)
+   {
+      DictionaryMetrics currentMetrics = getMetrics();
+      currentMetrics.setEnabled(enabled);
+      if (enabled)
+         activeMetrics = currentMetrics;
+      else
+         activeMetrics = null;
+   } // end setMetricsEnabled
+
+// -------------------------
+// Snapshots. A snapshot consists of a header (magic number, version, and
+// flags) followed by a body, which is compressed if the flags say so:
+//    probe strategy, large-table flag, load factor, removed fraction,
+//    table size, number of entries, number of removed locations;
+//    for each location that is not null, in increasing order: the number of
+//    null locations skipped, the kind of record, and for an entry, its hash
+//    code, key, and value, each key and value as a length and bytes;
+//    an end record; and the CRC-32 checksum of all that precedes it.
+// Counts and lengths are written in a variable number of bytes, 7 bits each.
 // -------------------------
+
+   /** Writes a snapshot of this dictionary to a file.
+       @param file  The file to create or replace.
+       @param keyCodec  Converts keys to bytes.
+       @param valueCodec  Converts values to bytes.
+       @param compress  True if the snapshot should be compressed.
+       @throws IOException  if the file cannot be written. */
+   public void writeSnapshot(Path file, MappedHashedDictionary.Codec<K> keyCodec,
+                             MappedHashedDictionary.Codec<V> valueCodec,
+                             boolean compress) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                  StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         writeSnapshot(channel, keyCodec, valueCodec, compress);
+      } // end try
+   } // end writeSnapshot
+
+   /** Writes a snapshot of this dictionary to a channel, which remains open.
+       @param channel  The channel.
+       @param keyCodec  Converts keys to bytes.
+       @param valueCodec  Converts values to bytes.
+       @param compress  True if the snapshot should be compressed.
+       @throws IOException  if the channel cannot be written. */
+   public void writeSnapshot(WritableByteChannel channel, MappedHashedDictionary.Codec<K> keyCodec,
+                             MappedHashedDictionary.Codec<V> valueCodec,
+                             boolean compress) throws IOException
+   {
+      checkInitialization();
+      finishMigration(); // Write only one table
+
+      OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+      DataOutputStream header = new DataOutputStream(out);
+      header.writeInt(SNAPSHOT_MAGIC);
+      header.writeByte(SNAPSHOT_VERSION);
+      header.writeByte(compress ? COMPRESSED : 0);
+
+      // An explicit Deflater, unlike the default one, can release its
+      // native memory as soon as the snapshot is written
+      Deflater deflater = null;
+      DeflaterOutputStream deflaterStream = null;
+      OutputStream bodyStream = out;
+      if (compress)
+      {
+         deflater = new Deflater();
+         deflaterStream = new DeflaterOutputStream(out, deflater);
+         bodyStream = new BufferedOutputStream(deflaterStream);
+      } // end if
+      try
+      {
+         CRC32 checksum = new CRC32();
+         DataOutputStream body = new DataOutputStream(new CheckedOutputStream(bodyStream, checksum));
+
+         body.writeByte(probeStrategy.ordinal());
+         body.writeBoolean(largeTable);
+         body.writeDouble(maxLoadFactor);
+         body.writeDouble(maxRemovedFraction);
+         body.writeInt(hashTable.length);
+         body.writeInt(numberOfEntries);
+         body.writeInt(numberOfRemoved);
+
+         int skipped = 0; // Null locations since the last record
+         for (int index = 0; index < hashTable.length; index++)
+         {
+            Entry<K, V> entry = hashTable[index];
+            if (entry == null)
+               skipped++;
+            else
+            {
+               writeVarInt(body, skipped);
+               skipped = 0;
+               if (entry == AVAILABLE)
+                  body.writeByte(REMOVED_RECORD);
+               else
+               {
+                  body.writeByte(ENTRY_RECORD);
+                  body.writeInt(entry.getHash());
+                  writeBytes(body, keyCodec.toBytes(entry.getKey()));
+                  writeBytes(body, valueCodec.toBytes(entry.getValue()));
+               } // end if
+            } // end if
+         } // end for
+         writeVarInt(body, skipped);
+         body.writeByte(END_RECORD);
+         body.flush();
+
+         // The checksum itself is not checksummed
+         DataOutputStream trailer = new DataOutputStream(bodyStream);
+         trailer.writeInt((int)checksum.getValue());
+         trailer.flush();
+         if (deflaterStream != null)
+            deflaterStream.finish();
+         out.flush();
+      }
+      finally
+      {
+         if (deflater != null)
+            deflater.end();
+      } // end try
+   } // end writeSnapshot
+
+   /** Reads a dictionary from a snapshot file.
+       @param file  The file.
+       @param keyCodec  Converts bytes to keys.
+       @param valueCodec  Converts bytes to values.
+       @return  A dictionary with the entries of the snapshot.
+       @throws IOException  if the file cannot be read or is not a valid snapshot. */
+   public static <K, V> HashedDictionary<K, V> readSnapshot(Path file,
+                                                            MappedHashedDictionary.Codec<K> keyCodec,
+                                                            MappedHashedDictionary.Codec<V> valueCodec)
+                                                            throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+      {
+         return readSnapshot(channel, keyCodec, valueCodec, null);
+      } // end try
+   } // end readSnapshot
+
+   // Reads the location records, checksum, and end of a snapshot into a
+   // table of the given size, and makes it the hash table.
+   // A run of null locations takes only a few bytes, so the length of the
+   // snapshot does not limit the table size in its header. Instead, the
+   // records are collected first, and the table is allocated only after
+   // they and the checksum have been read intact.
+   private void readTable(DataInputStream body, InputStream bodyStream, CRC32 checksum,
+                          MappedHashedDictionary.Codec<K> keyCodec,
+                          MappedHashedDictionary.Codec<V> valueCodec,
+                          int tableSize, int entryCount, int removedCount)
+                          throws IOException
+   {
+      int recordCount = entryCount + removedCount; // Assertion: less than tableSize
+      int[] locations = new int[Math.min(recordCount, MIN_RECORD_CAPACITY)];
+      Entry<K, V>[] records = newTable(locations.length);
+      boolean hashesMatch = true;
+      int recordsRead = 0;
+      int removedRead = 0;
+      int index = readVarInt(body) - 1; // Location of the previous record
+      int kind = body.readUnsignedByte();
+      while (kind != END_RECORD)
+      {
+         index++;
+         if ( (index < 0) || (index >= tableSize) )
+            throw new StreamCorruptedException("Location out of range.");
+         if (recordsRead == recordCount)
+            throw new StreamCorruptedException("Snapshot has too many records.");
+         if (recordsRead == locations.length)
+         { // Grow the arrays with the input, never past recordCount
+            int newLength = (int)Math.min(2L * recordsRead, recordCount);
+            locations = Arrays.copyOf(locations, newLength);
+            records = Arrays.copyOf(records, newLength);
+         } // end if
+
+         if (kind == REMOVED_RECORD)
+         {
+            records[recordsRead] = AVAILABLE;
+            removedRead++;
+         }
+         else if (kind == ENTRY_RECORD)
+         {
+            int hash = body.readInt();
+            K key = keyCodec.fromBytes(readBytes(body));
+            V value = valueCodec.fromBytes(readBytes(body));
+            records[recordsRead] = new Entry<>(key, value, hash);
+            hashesMatch = hashesMatch && (hash(key) == hash);
+         }
+         else
+            throw new StreamCorruptedException("Unknown record.");
+         locations[recordsRead] = index;
+         recordsRead++;
+
+         index = index + readVarInt(body);
+         kind = body.readUnsignedByte();
+      } // end while
+
+      int expectedChecksum = (int)checksum.getValue();
+      if (new DataInputStream(bodyStream).readInt() != expectedChecksum)
+         throw new StreamCorruptedException("Snapshot checksum does not match.");
+      if ( (recordsRead != recordCount) || (removedRead != removedCount) )
+         throw new StreamCorruptedException("Snapshot is incomplete.");
+
+      Entry<K, V>[] table = newTable(tableSize);
+      for (int record = 0; record < recordsRead; record++)
+         table[locations[record]] = records[record];
+
+      numberOfEntries = entryCount;
+      if (hashesMatch)
+      { // Use the table as it is
+         hashTable = table;
+         hashCodes = new int[tableSize];
+         for (int location = 0; location < tableSize; location++)
+         {
+            if (table[location] != null)
+               hashCodes[location] = table[location].getHash();
+         } // end for
+         numberOfRemoved = removedCount;
+         if (probeStrategy == ProbeStrategy.ROBIN_HOOD)
+         {
+            for (int location = 0; location < tableSize; location++)
+            {
+               if (table[location] != null)
+                  table[location].setProbeLength(getProbeLength(table, table[location].getHash(),
+                                                                location));
+            } // end for
+         } // end if
+      }
+      else
+      { // Place each entry again, with its key's current hash code
+         hashTable = newTable(tableSize);
+         hashCodes = new int[tableSize];
+         numberOfRemoved = 0;
+         for (int location = 0; location < tableSize; location++)
+         {
+            Entry<K, V> entry = table[location];
+            if ( (entry != null) && (entry != AVAILABLE) )
+               rehash(new Entry<>(entry.getKey(), entry.getValue(), hash(entry.getKey())));
+         } // end for
+      } // end if
+      modCount++;
+   } // end readTable
+
+   /** Reads a dictionary from a snapshot in a channel. Each entry is placed
+       at the location it had when the snapshot was written. If a key's hash
+       code has changed, as when hasher differs from the one the writer
+       used, the entries are rehashed instead.
+       @param channel  The channel.
+       @param keyCodec  Converts bytes to keys.
+       @param valueCodec  Converts bytes to values.
+       @param hasher  The function that computes hash codes, or null.
+       @return  A dictionary with the entries of the snapshot.
+       @throws IOException  if the channel cannot be read or does not contain
+                            a valid snapshot. */
+   public static <K, V> HashedDictionary<K, V> readSnapshot(ReadableByteChannel channel,
+                                                            MappedHashedDictionary.Codec<K> keyCodec,
+                                                            MappedHashedDictionary.Codec<V> valueCodec,
+                                                            Hasher<? super K> hasher)
+                                                            throws IOException
+   {
+      InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+      DataInputStream header = new DataInputStream(in);
+      if (header.readInt() != SNAPSHOT_MAGIC)
+         throw new StreamCorruptedException("Not a dictionary snapshot.");
+      int version = header.readUnsignedByte();
+      if (version != SNAPSHOT_VERSION)
+         throw new StreamCorruptedException("Unsupported snapshot version " + version + ".");
+      boolean compressed = (header.readUnsignedByte() & COMPRESSED) != 0;
+
+      Inflater inflater = null;
+      InputStream bodyStream = in;
+      if (compressed)
+      {
+         inflater = new Inflater();
+         bodyStream = new BufferedInputStream(new InflaterInputStream(in, inflater));
+      } // end if
+      try
+      {
+         CRC32 checksum = new CRC32();
+         DataInputStream body = new DataInputStream(new CheckedInputStream(bodyStream, checksum));
+
+         ProbeStrategy[] strategies = ProbeStrategy.values();
+         int strategyIndex = body.readUnsignedByte();
+         if (strategyIndex >= strategies.length)
+            throw new StreamCorruptedException("Unknown probe strategy.");
+         boolean largeTable = body.readBoolean();
+         double maxLoadFactor = body.readDouble();
+         double maxRemovedFraction = body.readDouble();
+         int tableSize = body.readInt();
+         int numberOfEntries = body.readInt();
+         int numberOfRemoved = body.readInt();
+
+         HashedDictionary<K, V> result;
+         try
+         {
+            result = new HashedDictionary<>(DEFAULT_CAPACITY, largeTable, strategies[strategyIndex],
+                                            maxLoadFactor, hasher);
+            result.checkSize(tableSize);
+            if ( (tableSize <= 0) || (numberOfEntries < 0) || (numberOfRemoved < 0) ||
+                 ((long)numberOfEntries + numberOfRemoved >= tableSize) )
+               throw new StreamCorruptedException("Invalid table size.");
+            if ( (maxRemovedFraction <= 0) || (maxRemovedFraction + maxLoadFactor >= 1) )
+               throw new StreamCorruptedException("Invalid removed fraction.");
+         }
+         catch (IllegalArgumentException | IllegalStateException e)
+         {
+            throw new StreamCorruptedException(e.getMessage());
+         } // end try
+
+         result.maxRemovedFraction = maxRemovedFraction;
+         result.readTable(body, bodyStream, checksum, keyCodec, valueCodec,
+                          tableSize, numberOfEntries, numberOfRemoved);
+         return result;
+      }
+      finally
+      {
+         if (inflater != null)
+            inflater.end();
+      } // end try
+   } // end readSnapshot
+
+   private static void writeVarInt(DataOutputStream out, int value) throws IOException
+   {
+      while ((value & ~0x7F) != 0)
+      {
+         out.writeByte((value & 0x7F) | 0x80); // More bytes follow
+         value = value >>> 7;
+      } // end while
+      out.writeByte(value);
+   } // end writeVarInt
+
+   private static int readVarInt(DataInputStream in) throws IOException
+   {
+      int result = 0;
+      int shift = 0;
+      int nextByte;
+      do
+      {
+         if (shift > 28)
+            throw new StreamCorruptedException("Invalid count.");
+         nextByte = in.readUnsignedByte();
+         result = result | ((nextByte & 0x7F) << shift);
+         shift = shift + 7;
+      } while ((nextByte & 0x80) != 0);
+
+      return result;
+   } // end readVarInt
+
+   private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+   {
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+   } // end writeBytes
+
+   private static byte[] readBytes(DataInputStream in) throws IOException
+   {
+      int length = readVarInt(in);
+      if (length < 0)
+         throw new StreamCorruptedException("Invalid length.");
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return bytes;
+   } // end readBytes
+// -------------------------
+
+   /** Sets whether enlarging the hash table rehashes its entries all at
+       once or a few at a time. In incremental mode, the old and new tables
+       coexist after an enlargement, and each later add, remove, and
+       getValue moves a bounded number of old locations into the new table.
+       Quadratic probing of a prime-size table cannot be incremental: its
+       probe sequences skip about half the old table, so once migration
+       has emptied that table, a search for a missing key would examine
+       every location instead of stopping at an empty one.
+       @param incremental  True if enlargement should be incremental.
+       @throws IllegalStateException if incremental is true and the
+               dictionary uses quadratic probing without a large table. */
+   public void setIncrementalResize(boolean incremental)
+   {
+      checkInitialization();
+      if (incremental && (probeStrategy == ProbeStrategy.QUADRATIC) && !largeTable)
+         throw new IllegalStateException("Incremental resizing needs a large table " +
+                                         "with quadratic probing.");
+      if (!incremental)
+         finishMigration();
+      incrementalResize = incremental;
+   } // end setIncrementalResize
+
+   /** Sets the fraction of the hash table that can be in the removed state
+       before the table is rehashed into a new table of the same size to
+       clear those locations.
+       Removed locations arise only with quadratic probing and double
+       hashing, since the other strategies let remove shift later entries
+       back instead. The default is 0.25, or half of the fraction that the
+       load factor leaves free if that is less.
+       @param fraction  A fraction of the table size, between 0 and 1.
+                        Together with the load factor, it must be less than 1. */
+   public void setMaxRemovedFraction(double fraction)
+   {
+      checkInitialization();
+      if ( (fraction <= 0) || (fraction + maxLoadFactor >= 1) )
+         throw new IllegalArgumentException("Fraction must be between 0 and " +
+                                            (1 - maxLoadFactor) + ".");
+      maxRemovedFraction = fraction;
+      if (hasTooManyRemoved())
+         purgeRemovedEntries();
+   } // end setMaxRemovedFraction
 	
 	public V add(K key, V value)
 	{
@@ -78,18 +822,48 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
       if ((key == null) || (value == null))
          throw new IllegalArgumentException("Cannot add null to a dictionary.");
       else
-      {
+         return addEntry(key, value, hash(key));
+   } // end add
+
+   // Adds or replaces the entry for key, and returns the replaced value or null.
+   // Precondition: checkInitialization has been called, key and value are
+   //               not null, and hash == hash(key).
+   private V addEntry(K key, V value, int hash)
+   {
          V oldValue;                // Value to return
 
-         int index = getHashIndex(key);
+         migrate(MIGRATION_STEP);
+         if (oldTable != null)
+         {
+            // The key might not have been moved to the new table yet
+            int oldIndex = getHashIndex(oldTable, oldHashCodes, key, hash);
+            if (isFound(oldTable, oldHashCodes, oldIndex, key, hash))
+            { // Key found in old table; replace its value there
+               oldValue = oldTable[oldIndex].getValue();
+               oldTable[oldIndex].setValue(value);
+               return oldValue;
+            } // end if
+         } // end if
+
+         int index = getHashIndex(hashTable, hashCodes, key, hash);
+         if (activeMetrics != null)
+            recordOperation(hash, index);
 
          // Assertion: index is within legal range for hashTable
          assert (index >= 0) && (index < hashTable.length);
 
-         if ( (hashTable[index] == null) || (hashTable[index] == AVAILABLE) )
+         if (!isFound(hashTable, hashCodes, index, key, hash))
          { // Key not found, so insert new entry
-            hashTable[index] = new Entry<>(key, value);
+            if (probeStrategy == ProbeStrategy.ROBIN_HOOD)
+               robinHoodInsert(new Entry<>(key, value, hash));
+            else
+            {
+               if (hashTable[index] == AVAILABLE)
+                  numberOfRemoved--;
+               setEntry(index, new Entry<>(key, value, hash));
+            } // end if
             numberOfEntries++;
+            modCount++;
             oldValue = null;
          }
          else
@@ -103,41 +877,231 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
             enlargeHashTable();
          
          return oldValue;
-      } // end if
-   } // end add
+   } // end addEntry
 
 	public V remove(K key)
 	{
       checkInitialization();
+      return removeEntry(key, hash(key));
+   } // end remove
+
+   // Removes the entry for key, and returns its value or null.
+   // Precondition: checkInitialization has been called, and hash == hash(key).
+   private V removeEntry(K key, int hash)
+   {
       V removedValue = null;
+      migrate(MIGRATION_STEP);
    	
-		int index = getHashIndex(key);
+		int index = getHashIndex(hashTable, hashCodes, key, hash);
+      if (activeMetrics != null)
+         recordOperation(hash, index);
 
-		if ((hashTable[index] != null) && (hashTable[index] != AVAILABLE))
+		if (isFound(hashTable, hashCodes, index, key, hash))
 		{
-			// Key found; flag entry as removed and return its value
+			// Key found; remove entry and return its value
 			removedValue = hashTable[index].getValue();
-			hashTable[index] = AVAILABLE;
+			removeEntryAt(index);
 			numberOfEntries--;
+         modCount++;
+         if (hasTooManyRemoved())
+            purgeRemovedEntries();
+		}
+      else if (oldTable != null)
+      {
+         // Key might not have been moved to the new table yet
+         index = getHashIndex(oldTable, oldHashCodes, key, hash);
+         if (isFound(oldTable, oldHashCodes, index, key, hash))
+         {
+            removedValue = oldTable[index].getValue();
+            oldTable[index] = AVAILABLE;
+            numberOfEntries--;
+            modCount++;
+         } // end if
 		} // end if
 		// Else not found; result is null
 		
 		return removedValue;
-   } // end remove
+   } // end removeEntry
 
    public V getValue(K key)
    {
       checkInitialization();
+      return findValue(key, hash(key));
+   } // end getValue
+
+   // Returns the value associated with key, or null.
+   // Precondition: checkInitialization has been called, and hash == hash(key).
+   private V findValue(K key, int hash)
+   {
       V result = null;
+      migrate(MIGRATION_STEP);
       
-      int index = getHashIndex(key);
+      int index = getHashIndex(hashTable, hashCodes, key, hash);
+      if (activeMetrics != null)
+         recordOperation(hash, index);
 
-      if ((hashTable[index] != null) && (hashTable[index] != AVAILABLE))
+      if (isFound(hashTable, hashCodes, index, key, hash))
          result = hashTable[index].getValue(); // Key found; get value
+      else if (oldTable != null)
+      {
+         // Key might not have been moved to the new table yet
+         index = getHashIndex(oldTable, oldHashCodes, key, hash);
+         if (isFound(oldTable, oldHashCodes, index, key, hash))
+            result = oldTable[index].getValue();
+      } // end if
       // Else not found; result is null
       
       return result;
-   } // end getValue
+   } // end findValue
+
+   /** Adds a batch of entries to this dictionary. If a key is already in
+       the dictionary, its value is replaced. Unless resizing is incremental,
+       the hash table is enlarged at most once, and only for the keys that
+       are new.
+       @param keys    An array of search keys.
+       @param values  An array of the values associated with keys.
+       @return  The number of entries that were new.
+       @throws IllegalArgumentException if the arrays differ in length or
+               any key or value is null, as add does for a null key or value.
+               The arrays are checked before any entry is added. */
+   public int addAll(K[] keys, V[] values)
+   {
+      checkInitialization();
+      if ((keys == null) || (values == null) || (keys.length != values.length))
+         throw new IllegalArgumentException("Keys and values must be arrays of the same length.");
+      for (int index = 0; index < keys.length; index++)
+      {
+         if ((keys[index] == null) || (values[index] == null))
+            throw new IllegalArgumentException("Cannot add null to a dictionary.");
+      } // end for
+
+      int[] hashes = getHashes(keys);
+      if (!incrementalResize && (numberOfEntries + keys.length > maxLoadFactor * hashTable.length))
+      {
+         // Enlarge the table once for the keys that are new, unless that
+         // size would be too large; addEntry then enlarges it as needed
+         int numberNew = 0;
+         for (int index = 0; index < keys.length; index++)
+         {
+            if (findValue(keys[index], hashes[index]) == null)
+               numberNew++;
+         } // end for
+
+         int newSize = getSizeFor((long)numberOfEntries + numberNew);
+         if (newSize != hashTable.length)
+            resizeHashTable(newSize, false);
+      } // end if
+
+      int numberAdded = 0;
+      for (int index : getBatchOrder(hashes))
+      {
+         if (addEntry(keys[index], values[index], hashes[index]) == null)
+            numberAdded++;
+      } // end for
+
+      return numberAdded;
+   } // end addAll
+
+   /** Retrieves the values associated with a batch of search keys.
+       @param keys     An array of search keys.
+       @param results  An array at least as long as keys; results[i] is set to
+                       either the value associated with keys[i] or null. */
+   public void getAll(K[] keys, V[] results)
+   {
+      checkInitialization();
+      if (results.length < keys.length)
+         throw new IllegalArgumentException("Results array is too short.");
+      finishMigration(); // Order the batch for one table only
+
+      int[] hashes = getHashes(keys);
+      for (int index : getBatchOrder(hashes))
+         results[index] = findValue(keys[index], hashes[index]);
+   } // end getAll
+
+   /** Removes the entries for a batch of search keys.
+       @param keys  An array of search keys.
+       @return  The number of entries that were removed. */
+   public int removeAll(K[] keys)
+   {
+      checkInitialization();
+      finishMigration(); // Order the batch for one table only
+
+      int[] hashes = getHashes(keys);
+      int numberRemoved = 0;
+      for (int index : getBatchOrder(hashes))
+      {
+         if (removeEntry(keys[index], hashes[index]) != null)
+            numberRemoved++;
+      } // end for
+
+      return numberRemoved;
+   } // end removeAll
+
+   /** Enlarges the hash table, if necessary, so that it can hold a given
+       number of entries without being enlarged again.
+       @param capacity  The number of entries. */
+   public void ensureCapacity(int capacity)
+   {
+      checkInitialization();
+      finishMigration();
+      int newSize = hashTable.length;
+      while (capacity > maxLoadFactor * newSize)
+         newSize = getEnlargedSize(newSize);
+
+      if (newSize != hashTable.length)
+         resizeHashTable(newSize, false);
+   } // end ensureCapacity
+
+   // Returns the size to which adds would enlarge the hash table so that it
+   // holds the given number of entries, or the current size if that size
+   // would be too large.
+   private int getSizeFor(long capacity)
+   {
+      int maxSize = largeTable ? MAX_LARGE_SIZE : MAX_SIZE;
+      int newSize = hashTable.length;
+      while ( (capacity > maxLoadFactor * newSize) && (newSize <= maxSize / 2) )
+         newSize = largeTable ? newSize + newSize : getNextPrime(newSize + newSize);
+
+      if ( (newSize > maxSize) || (capacity > maxLoadFactor * newSize) )
+         newSize = hashTable.length;
+
+      return newSize;
+   } // end getSizeFor
+
+   private int[] getHashes(K[] keys)
+   {
+      int[] hashes = new int[keys.length];
+      for (int index = 0; index < keys.length; index++)
+         hashes[index] = hash(keys[index]);
+
+      return hashes;
+   } // end getHashes
+
+   // Returns the indices of a batch of keys in the order in which to process
+   // them: by home location in the current hash table, so that consecutive
+   // probes touch nearby locations. A small batch keeps its original order.
+   private int[] getBatchOrder(int[] hashes)
+   {
+      int[] order = new int[hashes.length];
+      if (hashes.length < MIN_SORTED_BATCH)
+      {
+         for (int index = 0; index < order.length; index++)
+            order[index] = index;
+      }
+      else
+      {
+         // Pack each home location with its batch index, and sort the pairs
+         long[] pairs = new long[hashes.length];
+         for (int index = 0; index < pairs.length; index++)
+            pairs[index] = ((long)getHomeIndex(hashTable, hashes[index]) << 32) | index;
+         Arrays.sort(pairs);
+
+         for (int index = 0; index < order.length; index++)
+            order[index] = (int)pairs[index];   // Low-order 32 bits
+      } // end if
+
+      return order;
+   } // end getBatchOrder
 
 	public boolean contains(K key)
    {
@@ -160,49 +1124,172 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
 		for (int index = 0; index < hashTable.length; index++)
 			hashTable[index] = null;
 
+      oldTable = null;
+      oldHashCodes = null;
       numberOfEntries = 0;
+      numberOfRemoved = 0;
+      modCount++;
    } // end clear
 
 	public Iterator<K> getKeyIterator()
 	{ 
+      finishMigration(); // Iterators traverse only hashTable
 		return new KeyIterator();
 	} // end getKeyIterator
 	
 	public Iterator<V> getValueIterator()
 	{	
+      finishMigration(); // Iterators traverse only hashTable
 		return new ValueIterator();
 	} // end getValueIterator
+
+   /** Creates an iterator that traverses all entries in this dictionary.
+       Each entry provides both its key and its value, so no search is
+       needed to pair them. Changing an entry's value changes the
+       dictionary; the iterator's remove method removes the entry.
+       @return  An iterator that provides sequential access to the
+                entries in this dictionary. */
+   public Iterator<Map.Entry<K, V>> getEntryIterator()
+   {
+      finishMigration(); // Iterators traverse only hashTable
+      return new EntryIterator();
+   } // end getEntryIterator
+
+   /** Creates a spliterator over all entries in this dictionary, for use
+       with StreamSupport.stream. It splits the hash table into halves, so
+       a parallel stream can process the entries in several threads. The
+       dictionary must not be changed while the spliterator is in use.
+       @return  A spliterator over the entries in this dictionary. */
+   public Spliterator<Map.Entry<K, V>> getEntrySpliterator()
+   {
+      finishMigration(); // Spliterators traverse only hashTable
+      return new EntrySpliterator(hashTable, 0, hashTable.length, numberOfEntries, modCount);
+   } // end getEntrySpliterator
    
-	private int getHashIndex(K key)
+   // Returns the hash code that this dictionary uses for key. It is mixed
+   // for a large table, whose power-of-2 size uses only its low-order bits.
+   private int hash(K key)
+   {
+      int hashCode;
+      if (hasher == null)
+         hashCode = key.hashCode();
+      else
+         hashCode = hasher.hash(key);
+
+      if (largeTable)
+         return mix(hashCode);
+      else
+         return hashCode;
+   } // end hash
+
+   // Returns the index of either the entry containing key or the location
+   // where it belongs in the given table. For Robin Hood hashing, the latter
+   // location can contain an entry that the new entry would displace.
+   // Returns -1 if a probe ends without finding either; the load factor
+   // prevents this in the current table, but not in an old table that an
+   // incremental resize has partly emptied.
+   // Precondition: hashes holds the hash codes of table's entries, and
+   //               hash == hash(key).
+	private int getHashIndex(Entry<K, V>[] table, int[] hashes, K key, int hash)
 	{
-		int hashIndex = key.hashCode() % hashTable.length;
-		
-		if (hashIndex < 0)
-		{
-			hashIndex = hashIndex + hashTable.length;
-		} // end if
+		int hashIndex = getHomeIndex(table, hash);
       
       // Check for and resolve collision
-      hashIndex = linearProbe(hashIndex, key);
-//    hashIndex = quadraticProbe(hashIndex, key);
+      if (probeStrategy == ProbeStrategy.QUADRATIC)
+         hashIndex = quadraticProbe(table, hashes, hashIndex, key, hash);
+      else if (probeStrategy == ProbeStrategy.DOUBLE_HASHING)
+         hashIndex = doubleHashProbe(table, hashes, hashIndex, key, hash);
+      else if (probeStrategy == ProbeStrategy.ROBIN_HOOD)
+         hashIndex = robinHoodProbe(table, hashes, hashIndex, key, hash);
+      else
+         hashIndex = linearProbe(table, hashes, hashIndex, key, hash);
 
 		return hashIndex;
 	} // end getHashIndex
+
+   // Returns true if the given location of table contains the entry for key.
+   // An index of -1 means that the probe ended without finding key or a
+   // location for it.
+   // Precondition: index was returned by getHashIndex(table, hashes, key, hash).
+   private boolean isFound(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
+   {
+      if (index < 0)
+         return false;
+
+      Entry<K, V> entry = table[index];
+      boolean result = (entry != null) && (entry != AVAILABLE);
+
+      // Only a Robin Hood probe can end at an entry for a different key
+      if (result && (probeStrategy == ProbeStrategy.ROBIN_HOOD))
+         result = isKeyAt(table, hashes, index, key, hash);
+
+      return result;
+   } // end isFound
+
+   // Returns true if the given location of table contains the entry for
+   // key. The hash codes in hashes are compared first, so the entry itself
+   // is read, and equals called, only when the codes match.
+   // Precondition: table[index] contains an entry.
+   private boolean isKeyAt(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
+   {
+      return (hashes[index] == hash) && key.equals(table[index].getKey());
+   } // end isKeyAt
+
+   // Returns the index in the given table at which the probe sequence
+   // for a key with the given hash code begins.
+	private int getHomeIndex(Entry<K, V>[] table, int hash)
+	{
+		int hashIndex;
+
+      if (largeTable)
+      {
+         // The table size is a power of 2, so mask off the low-order bits
+         // of the mixed hash code instead of dividing
+         hashIndex = hash & (table.length - 1);
+      }
+      else
+      {
+         hashIndex = hash % table.length;
+
+         if (hashIndex < 0)
+         {
+            hashIndex = hashIndex + table.length;
+         } // end if
+      } // end if
+
+		return hashIndex;
+	} // end getHomeIndex
+
+   // Spreads the bits of a hash code so that its low-order bits depend on
+   // all of its bits (the finalization step of MurmurHash3). A power-of-2
+   // table uses only the low-order bits, which are weak for keys such as
+   // Strings and Integers.
+   private static int mix(int hashCode)
+   {
+      hashCode = hashCode ^ (hashCode >>> 16);
+      hashCode = hashCode * 0x85ebca6b;
+      hashCode = hashCode ^ (hashCode >>> 13);
+      hashCode = hashCode * 0xc2b2ae35;
+      hashCode = hashCode ^ (hashCode >>> 16);
+      return hashCode;
+   } // end mix
 	
    // Precondition: checkInitialization has been called.
-	private int linearProbe(int index, K key)
+	private int linearProbe(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
 	{
       boolean found = false;
       int availableIndex = -1; // Index of first available location (from which an entry was removed)
-      
-      while ( !found && (hashTable[index] != null) )
+      int probes = 0;          // Locations examined so far
+
+      while ( !found && (table[index] != null) && (probes < table.length) )
       {
-         if (hashTable[index] != AVAILABLE)
+         probes++;
+         if (table[index] != AVAILABLE)
          {
-            if (key.equals(hashTable[index].getKey()))
+            if (isKeyAt(table, hashes, index, key, hash))
                found = true; // Key found
             else             // Follow probe sequence
-               index = (index + 1) % hashTable.length;         // Linear probing
+               index = (index + 1) % table.length;         // Linear probing
          }
          else // Skip entries that were removed
          {
@@ -210,34 +1297,39 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
             if (availableIndex == -1)
                availableIndex = index;
             
-            index = (index + 1) % hashTable.length;            // Linear probing
+            index = (index + 1) % table.length;            // Linear probing
          } // end if
       } // end while
-      // Assertion: Either key or null is found at hashTable[index]
-      
-      if (found || (availableIndex == -1) )
+      // Assertion: Either key or null is found at table[index], or the
+      //            probe ended without reaching either
+
+      if (found || ((availableIndex == -1) && (table[index] == null)) )
          return index;                                      // Index of either key or null
       else
-         return availableIndex;                          // Index of an available location
+         return availableIndex;                          // Index of an available location, or -1
 	} // end linearProbe
 	
    // Precondition: checkInitialization has been called.
-   private int quadraticProbe(int index, K key)
+   private int quadraticProbe(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
    {
       boolean found = false;
       int availableIndex = -1; // Index of first available location (from which an entry was removed)
       int increment = 1;          // For quadratic probing
-      
-      while ( !found && (hashTable[index] != null) )
+      int probes = 0;             // Locations examined so far
+
+      // A quadratic probe of a prime-size table revisits locations after
+      // about half the table, so stop once the sequence must have repeated
+      while ( !found && (table[index] != null) && (probes < table.length) )
       {
-         if ((hashTable[index] != null) && (hashTable[index] != AVAILABLE))
+         probes++;
+         if ((table[index] != null) && (table[index] != AVAILABLE))
          {
-            if (key.equals(hashTable[index].getKey()))
+            if (isKeyAt(table, hashes, index, key, hash))
                found = true; // Key found
             else             // Follow probe sequence
             {
-               index = (index + increment) % hashTable.length; // Quadratic probing
-               increment = increment + 2;                      // Odd values for quadratic probing
+               index = (index + increment) % table.length; // Quadratic probing
+               increment = nextIncrement(increment);
             } // end if
          }
          else // Skip entries that were removed
@@ -245,51 +1337,367 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
             // Save index of first location in removed state
             if (availableIndex == -1)
                availableIndex = index;
-            index = (index + increment) % hashTable.length;    // Quadratic probing
-            increment = increment + 2;                         // Odd values for quadratic probing
+            index = (index + increment) % table.length;    // Quadratic probing
+            increment = nextIncrement(increment);
          } // end if
       } // end while
-        // Assertion: Either key or null is found at hashTable[index]
-      
-      if (found || (availableIndex == -1) )
+      // Assertion: Either key or null is found at table[index], or the
+      //            probe ended without reaching either
+
+      if (found || ((availableIndex == -1) && (table[index] == null)) )
          return index;                                      // Index of either key or null
       else
-         return availableIndex;                          // Index of an available location
+         return availableIndex;                          // Index of an available location, or -1
    } // end quadraticProbe
+
+   // Precondition: checkInitialization has been called.
+   private int doubleHashProbe(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
+   {
+      boolean found = false;
+      int availableIndex = -1; // Index of first available location (from which an entry was removed)
+      int stepSize = getStepSize(table, hash);
+      int probes = 0;          // Locations examined so far
+
+      // The step size is relatively prime to the table size, so the
+      // sequence examines every location once before it repeats
+      while ( !found && (table[index] != null) && (probes < table.length) )
+      {
+         probes++;
+         if (table[index] != AVAILABLE)
+         {
+            if (isKeyAt(table, hashes, index, key, hash))
+               found = true; // Key found
+            else             // Follow probe sequence
+               index = (index + stepSize) % table.length;  // Double hashing
+         }
+         else // Skip entries that were removed
+         {
+            // Save index of first location in removed state
+            if (availableIndex == -1)
+               availableIndex = index;
+
+            index = (index + stepSize) % table.length;     // Double hashing
+         } // end if
+      } // end while
+      // Assertion: Either key or null is found at table[index], or the
+      //            probe ended without reaching either
+
+      if (found || ((availableIndex == -1) && (table[index] == null)) )
+         return index;                                      // Index of either key or null
+      else
+         return availableIndex;                          // Index of an available location, or -1
+   } // end doubleHashProbe
+
+   // Returns the distance between locations in a double-hashing probe: a
+   // second hash of the hash code. Every distance from 1 to size - 1 is
+   // relatively prime to a prime table size, and every odd distance to a
+   // power-of-2 table size, so the probe can reach every location.
+   private int getStepSize(Entry<K, V>[] table, int hash)
+   {
+      int secondHash = mix(hash ^ 0x9e3779b9); // Independent of the home location
+      if (largeTable)
+         return (secondHash | 1) & (table.length - 1);
+      else
+         return 1 + (secondHash & 0x7FFFFFFF) % (table.length - 1);
+   } // end getStepSize
+
+   // Returns the increment that follows the given one in a quadratic probe.
+   // Odd values probe at squared distances, which reach half of a prime-sized
+   // table. In a power-of-2 table, consecutive values probe at triangular
+   // distances, which reach every location.
+   private int nextIncrement(int increment)
+   {
+      if (largeTable)
+         return increment + 1;
+      else
+         return increment + 2;                                 // Odd values for quadratic probing
+   } // end nextIncrement
+
+   // Precondition: checkInitialization has been called.
+   // Returns the index of the entry containing key, or the location at which
+   // the search ended: either null or an entry that is closer to its home
+   // location than key would be. Skips locations in the removed state, which
+   // occur only in a table that an incremental resize is emptying.
+	private int robinHoodProbe(Entry<K, V>[] table, int[] hashes, int index, K key, int hash)
+	{
+      boolean done = false;
+      int distance = 0;        // Distance of index from key's home location
+
+      while ( !done && (table[index] != null) )
+      {
+         // The probe length of the entry at index follows from its hash
+         // code, so the entry itself is read only if the codes match
+         if ( (table[index] != AVAILABLE) &&
+              ((getProbeLength(table, hashes[index], index) < distance) ||
+               isKeyAt(table, hashes, index, key, hash)) )
+            done = true;         // Key found, or key would have displaced this entry
+         else
+         {
+            index = (index + 1) % table.length;
+            distance++;
+         } // end if
+      } // end while
+
+      return index;
+	} // end robinHoodProbe
+
+   // Inserts an entry into the hash table by Robin Hood hashing: Beginning at
+   // the entry's home location, whenever the entry being placed is farther
+   // from home than the entry in a location, the two trade places and the
+   // displaced entry continues the search.
+   // Precondition: The entry's key is not in the hash table, the hash table
+   //               has room for the entry, and no location is in the removed state.
+   private void robinHoodInsert(Entry<K, V> entry)
+   {
+      int index = getHomeIndex(hashTable, entry.getHash());
+      entry.setProbeLength(0);
+
+      while (hashTable[index] != null)
+      {
+         if (hashTable[index].getProbeLength() < entry.getProbeLength())
+         {
+            Entry<K, V> displaced = hashTable[index];
+            setEntry(index, entry);
+            entry = displaced;
+         } // end if
+
+         index = (index + 1) % hashTable.length;
+         entry.setProbeLength(entry.getProbeLength() + 1);
+      } // end while
+
+      setEntry(index, entry);
+   } // end robinHoodInsert
    
-   // Increases the size of the hash table to a prime >= twice its old size.
-   // In doing so, this method must rehash the table entries.
+   // Increases the size of the hash table to a prime >= twice its old size,
+   // or to twice its old size for a large table.
+   // In doing so, this method must rehash the table entries, either
+   // immediately or, in incremental mode, during later operations.
    // Precondition: checkInitialization has been called.
 	private void enlargeHashTable()
 	{
+      finishMigration(); // At most one old table at a time
+      resizeHashTable(getEnlargedSize(hashTable.length), incrementalResize);
+	} // end enlargeHashTable
+
+   // Returns the size to which a hash table of the given size is enlarged.
+   private int getEnlargedSize(int oldSize)
+   {
+      int newSize;
+      if (largeTable)
+         newSize = (int)Math.min(2L * oldSize, Integer.MAX_VALUE); // Still a power of 2
+      else
+         newSize = getNextPrime(oldSize + oldSize);
+      checkSize(newSize); // Check that the size is not too large
+
+      return newSize;
+   } // end getEnlargedSize
+
+   // Replaces the hash table with a larger one of the given size, and
+   // rehashes the entries, either now or as later operations migrate them.
+   // Precondition: No incremental resize is in progress.
+   private void resizeHashTable(int newSize, boolean incremental)
+   {
+      long startTime = (activeMetrics != null) ? System.nanoTime() : 0;
       Entry<K, V>[] oldTable = hashTable;
+      int[] oldHashCodes = hashCodes;
       int oldSize = hashTable.length;
-      int newSize = getNextPrime(oldSize + oldSize);
-      checkSize(newSize); // Check that the prime size is not too large
 
       // The cast is safe because the new array contains null entries
       @SuppressWarnings("unchecked")
       Entry<K, V>[] tempTable = (Entry<K, V>[])new Entry[newSize]; // Increase size of array
       hashTable = tempTable;
-      numberOfEntries = 0; // Reset number of dictionary entries, since
-                           // it will be incremented by add during rehash
+      hashCodes = new int[newSize];
+      numberOfRemoved = 0;
+      modCount++;
+
+      if (incremental)
+      {
+         // Leave the entries in the old table; migrate moves them later
+         this.oldTable = oldTable;
+         this.oldHashCodes = oldHashCodes;
+         migrationIndex = 0;
+      }
+      else
+      {
+         // Rehash dictionary entries from old array to the new and bigger array;
+         // skip both null locations and removed entries. The entries are moved
+         // as they are, so numberOfEntries does not change.
+         for (int index = 0; index < oldSize; index++)
+         {
+            if ( (oldTable[index] != null) && (oldTable[index] != AVAILABLE) )
+               rehash(oldTable[index]);
+         } // end for
+      } // end if
+
+      if (activeMetrics != null)
+         activeMetrics.recordResize(System.nanoTime() - startTime);
+	} // end resizeHashTable
 
-      // Rehash dictionary entries from old array to the new and bigger array;
-      // skip both null locations and removed entries
-      for (int index = 0; index < oldSize; index++)
+   // Places an existing entry into the current hash table. Unlike add, this
+   // method neither allocates an entry nor checks the load factor, and it
+   // uses the entry's cached hash code instead of calling hashCode.
+   // Precondition: The entry's key is not already in the hash table,
+   //               and the hash table has room for the entry.
+   private void rehash(Entry<K, V> entry)
+   {
+      if (probeStrategy == ProbeStrategy.ROBIN_HOOD)
+      {
+         robinHoodInsert(entry);
+         return;
+      } // end if
+
+      int index = getHashIndex(hashTable, hashCodes, entry.getKey(), entry.getHash());
+      assert (hashTable[index] == null) || (hashTable[index] == AVAILABLE);
+      if (hashTable[index] == AVAILABLE)
+         numberOfRemoved--;
+      setEntry(index, entry);
+   } // end rehash
+
+   // Places an entry at the given index of the hash table,
+   // and records its hash code for probes.
+   private void setEntry(int index, Entry<K, V> entry)
+   {
+      hashTable[index] = entry;
+      hashCodes[index] = entry.getHash();
+   } // end setEntry
+
+   // Removes the entry at the given index of the hash table.
+   // With linear probing, the entries that follow in the same cluster move
+   // back to fill the gap, provided that doing so does not move them ahead
+   // of their home locations (backward-shift deletion). No location is left
+   // in the removed state, so probe sequences depend only on current entries.
+   // Robin Hood hashing does the same, using the recorded probe lengths.
+   // Otherwise (quadratic probing and double hashing), the location is
+   // flagged as removed.
+   // Either way, no entry moves to a location before index in its cluster.
+   // Precondition: hashTable[index] contains an entry.
+   private void removeEntryAt(int index)
+   {
+      if (usesRemovedState())
+      {
+         hashTable[index] = AVAILABLE;
+         numberOfRemoved++;
+      }
+      else if (probeStrategy == ProbeStrategy.ROBIN_HOOD)
       {
-         if ( (oldTable[index] != null) && (oldTable[index] != AVAILABLE) )
-            add(oldTable[index].getKey(), oldTable[index].getValue());
+         // Shift back each following entry that is not at its home location
+         int gap = index;
+         int next = (index + 1) % hashTable.length;
+         while ( (hashTable[next] != null) && (hashTable[next].getProbeLength() > 0) )
+         {
+            setEntry(gap, hashTable[next]);
+            hashTable[gap].setProbeLength(hashTable[gap].getProbeLength() - 1);
+            gap = next;
+            next = (next + 1) % hashTable.length;
+         } // end while
+
+         hashTable[gap] = null;
+      }
+      else
+      {
+         int gap = index;                           // Location to fill
+         int next = (index + 1) % hashTable.length; // Location of a candidate entry
+         hashTable[gap] = null;
+         while (hashTable[next] != null)
+         {
+            int home = getHomeIndex(hashTable, hashCodes[next]);
+
+            // The entry at next can fill the gap unless its home location
+            // lies cyclically in (gap, next]
+            boolean staysPut;
+            if (gap <= next)
+               staysPut = (gap < home) && (home <= next);
+            else
+               staysPut = (gap < home) || (home <= next);
+
+            if (!staysPut)
+            {
+               setEntry(gap, hashTable[next]);
+               hashTable[next] = null;
+               gap = next;
+            } // end if
+
+            next = (next + 1) % hashTable.length;
+         } // end while
+      } // end if
+   } // end removeEntryAt
+
+   // Returns true if removal leaves a location in the removed state. Only
+   // linear probing and Robin Hood hashing can shift entries back instead.
+   private boolean usesRemovedState()
+   {
+      return (probeStrategy == ProbeStrategy.QUADRATIC) ||
+             (probeStrategy == ProbeStrategy.DOUBLE_HASHING);
+   } // end usesRemovedState
+
+   // Rehashes the entries of the hash table into a table of the same size,
+   // leaving no locations in the removed state.
+   private void purgeRemovedEntries()
+   {
+      Entry<K, V>[] oldEntries = hashTable;
+
+      hashTable = newTable(oldEntries.length);
+      hashCodes = new int[oldEntries.length];
+      numberOfRemoved = 0;
+      modCount++;
+      if (activeMetrics != null)
+         activeMetrics.recordPurge();
+
+      for (int index = 0; index < oldEntries.length; index++)
+      {
+         if ( (oldEntries[index] != null) && (oldEntries[index] != AVAILABLE) )
+            rehash(oldEntries[index]);
       } // end for
-	} // end enlargeHashTable
+   } // end purgeRemovedEntries
+
+   // Moves the entries in up to the given number of locations of the old
+   // table into the current hash table. Does nothing unless an incremental
+   // resize is in progress.
+   // Each moved entry leaves the removed state behind, so that the probe
+   // sequences of the entries still in the old table remain intact.
+   private void migrate(int numberOfLocations)
+   {
+      while ( (oldTable != null) && (numberOfLocations > 0) )
+      {
+         Entry<K, V> entry = oldTable[migrationIndex];
+         if ( (entry != null) && (entry != AVAILABLE) )
+         {
+            oldTable[migrationIndex] = AVAILABLE;
+            rehash(entry);
+         } // end if
+
+         migrationIndex++;
+         numberOfLocations--;
+         if (migrationIndex == oldTable.length)
+         {
+            oldTable = null; // Old table is empty
+            oldHashCodes = null;
+         } // end if
+      } // end while
+   } // end migrate
+
+   // Moves every entry remaining in the old table, if any, into the
+   // current hash table.
+   private void finishMigration()
+   {
+      if (oldTable != null)
+         migrate(oldTable.length - migrationIndex);
+   } // end finishMigration
 
    // Returns true if lambda > MAX_LOAD_FACTOR for hash table;
    // otherwise returns false. 
    private boolean isHashTableTooFull()
    {
-      return numberOfEntries > MAX_LOAD_FACTOR * hashTable.length;
+      return numberOfEntries > maxLoadFactor * hashTable.length;
    } // end isHashTableTooFull
 
+   // Returns true if the fraction of the hash table in the removed state
+   // exceeds maxRemovedFraction; otherwise returns false.
+   private boolean hasTooManyRemoved()
+   {
+      return numberOfRemoved > maxRemovedFraction * hashTable.length;
+   } // end hasTooManyRemoved
+
    // Returns a prime integer that is >= the given integer, but <= MAX_SIZE.
 	private int getNextPrime(int anInteger)
 	{
@@ -308,6 +1716,19 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
 		return anInteger;
 	} // end getNextPrime
 	
+   // Returns the smallest power of 2 that is >= the given integer.
+   // Precondition: anInteger <= MAX_LARGE_SIZE.
+   private int getNextPowerOfTwo(int anInteger)
+   {
+      int result = 1;
+      while (result < anInteger)
+      {
+         result = result + result;
+      } // end while
+
+      return result;
+   } // end getNextPowerOfTwo
+
    // Returns true if the given intege is prime.
 	private boolean isPrime(int anInteger)
 	{
@@ -356,134 +1777,284 @@ public class HashedDictionary<K, V> implements DictionaryInterface<K, V>
    // that is not too small or too large.
    private int checkCapacity(int capacity)
    {
+      int maxCapacity = largeTable ? (int)(maxLoadFactor * MAX_LARGE_SIZE) : MAX_CAPACITY;
       if (capacity < DEFAULT_CAPACITY)
          capacity = DEFAULT_CAPACITY;
-      else if (capacity > MAX_CAPACITY)
+      else if (capacity > maxCapacity)
          throw new IllegalStateException("Attempt to create a dictionary " +
                                          "whose capacity is larger than " +
-                                         MAX_CAPACITY);
+                                         maxCapacity);
       return capacity;
    } // end checkCapacity
    
+   // Returns a new table of the given size whose locations are null.
+   private Entry<K, V>[] newTable(int size)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Entry<K, V>[] table = (Entry<K, V>[])new Entry[size];
+      return table;
+   } // end newTable
+
    // Throws an exception if the hash table becomes too large.
    private void checkSize(int size)
    {
-      if (size > MAX_SIZE)
+      int maxSize = largeTable ? MAX_LARGE_SIZE : MAX_SIZE;
+      if (size > maxSize)
          throw new IllegalStateException("Dictionary has become too large.");
    } // end checkSize
    
-	private class KeyIterator implements Iterator<K>
-	{
-      private int currentIndex; // Current position in hash table
-      private int numberLeft;   // Number of entries left in iteration
+   // Traverses the entries of the hash table. The traversal begins just
+   // after a null location, and the entries that follow a removed entry
+   // move back only within their cluster, so remove never moves an entry
+   // that has not been returned ahead of the current position.
+   private class TableIterator
+   {
+      private int currentIndex;     // Next location to examine
+      private int lastIndex;        // Location of the entry last returned, or -1
+      private int numberLeft;       // Number of entries left in iteration
+      private int expectedModCount; // modCount when the iterator was in step
 
-      private KeyIterator() 
+      private TableIterator()
       {
          currentIndex = 0;
+         if (numberOfEntries > 0)
+         {
+            // Start after a null location, so that no entry can move back
+            // past the start; without one, no entry moves, since only
+            // strategies that leave locations removed can fill the table
+            while ( (currentIndex < hashTable.length) && (hashTable[currentIndex] != null) )
+               currentIndex++;
+            currentIndex = (currentIndex + 1) % hashTable.length;
+         } // end if
+
+         lastIndex = -1;
          numberLeft = numberOfEntries;
+         expectedModCount = modCount;
       } // end default constructor
 
-      public boolean hasNext() 
+      public boolean hasNext()
       {
          return numberLeft > 0;
       } // end hasNext
 
-      public K next()
+      // Returns the next entry.
+      Entry<K, V> nextEntry()
       {
-         K result = null;
-
-         if (hasNext())
-         {
-            // Skip table locations that do not contain a current entry
-            while ( (hashTable[currentIndex] == null) || hashTable[currentIndex] == AVAILABLE )
-            {
-               currentIndex++;
-            } // end while
-
-            result = hashTable[currentIndex].getKey();
-            numberLeft--;
-            currentIndex++;
-         }
-         else
+         checkForComodification();
+         if (!hasNext())
             throw new NoSuchElementException();
 
-         return result;
-      } // end next
+         // Skip table locations that do not contain a current entry
+         while ( (hashTable[currentIndex] == null) || (hashTable[currentIndex] == AVAILABLE) )
+            currentIndex = (currentIndex + 1) % hashTable.length;
+
+         lastIndex = currentIndex;
+         currentIndex = (currentIndex + 1) % hashTable.length;
+         numberLeft--;
+         return hashTable[lastIndex];
+      } // end nextEntry
 
       public void remove()
       {
-         throw new UnsupportedOperationException();
+         if (lastIndex < 0)
+            throw new IllegalStateException();
+         checkForComodification();
+
+         // Locations in the removed state are purged by a later remove of the
+         // dictionary, not here, so that the table keeps its arrangement
+         removeEntryAt(lastIndex);
+         numberOfEntries--;
+         modCount++;
+         expectedModCount = modCount;
+
+         // An entry not yet returned might have moved back into the gap
+         if (!usesRemovedState())
+            currentIndex = lastIndex;
+         lastIndex = -1;
       } // end remove
+
+      private void checkForComodification()
+      {
+         if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+      } // end checkForComodification
+   } // end TableIterator
+
+	private class KeyIterator extends TableIterator implements Iterator<K>
+	{
+      public K next()
+      {
+         return nextEntry().getKey();
+      } // end next
 	} // end KeyIterator
 	
-	private class ValueIterator implements Iterator<V>
+	private class ValueIterator extends TableIterator implements Iterator<V>
 	{
-		private int currentIndex;
-		private int numberLeft; 
-		
-		private ValueIterator() 
-		{
-			currentIndex = 0;
-			numberLeft = numberOfEntries;
-		} // end default constructor
-		
-		public boolean hasNext() 
-		{
-			return numberLeft > 0; 
-		} // end hasNext
-		
 		public V next()
 		{
-			V result = null;
-			
-			if (hasNext())
-			{
-            // Skip table locations that do not contain a current entry
-	         while ( (hashTable[currentIndex] == null) || hashTable[currentIndex] == AVAILABLE )
-				{
-					currentIndex++;
-				} // end while
-				
-				result = hashTable[currentIndex].getValue();
-				numberLeft--;
-				currentIndex++;
-			}
-			else
-				throw new NoSuchElementException();
-		
-			return result;
+			return nextEntry().getValue();
 		} // end next
-		
-		public void remove()
-		{
-			throw new UnsupportedOperationException();
-		} // end remove
 	} // end ValueIterator
 
-	protected final class Entry<K, V>
+   private class EntryIterator extends TableIterator implements Iterator<Map.Entry<K, V>>
+   {
+      public Map.Entry<K, V> next()
+      {
+         return nextEntry();
+      } // end next
+   } // end EntryIterator
+
+   // Traverses the entries in locations origin through fence - 1 of a hash
+   // table. A split gives the first half of the locations to a new spliterator.
+   private class EntrySpliterator implements Spliterator<Map.Entry<K, V>>
+   {
+      private final Entry<K, V>[] table;
+      private int index;                    // Next location to examine
+      private final int fence;              // One past the last location
+      private long estimatedSize;
+      private final int expectedModCount;
+
+      private EntrySpliterator(Entry<K, V>[] table, int origin, int fence,
+                               long estimatedSize, int expectedModCount)
+      {
+         this.table = table;
+         index = origin;
+         this.fence = fence;
+         this.estimatedSize = estimatedSize;
+         this.expectedModCount = expectedModCount;
+      } // end constructor
+
+      public Spliterator<Map.Entry<K, V>> trySplit()
+      {
+         int middle = (index + fence) >>> 1;
+         if (index >= middle)
+            return null;
+
+         estimatedSize = estimatedSize / 2;
+         EntrySpliterator firstHalf = new EntrySpliterator(table, index, middle,
+                                                           estimatedSize, expectedModCount);
+         index = middle;
+         return firstHalf;
+      } // end trySplit
+
+      public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action)
+      {
+         if (action == null)
+            throw new NullPointerException();
+
+         while (index < fence)
+         {
+            Entry<K, V> entry = table[index];
+            index++;
+            if ( (entry != null) && (entry != AVAILABLE) )
+            {
+               action.accept(entry);
+               checkForComodification();
+               return true;
+            } // end if
+         } // end while
+
+         return false;
+      } // end tryAdvance
+
+      public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action)
+      {
+         if (action == null)
+            throw new NullPointerException();
+
+         for (; index < fence; index++)
+         {
+            Entry<K, V> entry = table[index];
+            if ( (entry != null) && (entry != AVAILABLE) )
+               action.accept(entry);
+         } // end for
+
+         checkForComodification();
+      } // end forEachRemaining
+
+      public long estimateSize()
+      {
+         return estimatedSize;
+      } // end estimateSize
+
+      public int characteristics()
+      {
+         return Spliterator.DISTINCT | Spliterator.NONNULL;
+      } // end characteristics
+
+      private void checkForComodification()
+      {
+         if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+      } // end checkForComodification
+   } // end EntrySpliterator
+
+	protected final class Entry<K, V> implements Map.Entry<K, V>
 	{
 		private K key;
 		private V value;
+      private final int hash;  // Hash code of key, as returned by hash(key)
+      private int probeLength; // Distance from home location (Robin Hood hashing only)
      
-		private Entry(K searchKey, V dataValue)
+		private Entry(K searchKey, V dataValue, int keyHash)
 		{
          key = searchKey;
          value = dataValue;
+         hash = keyHash;
 		} // end constructor
 		
-		private K getKey()
+		public K getKey()
 		{
 			return key;
 		} // end getKey
+
+		private int getHash()
+		{
+			return hash;
+		} // end getHash
 		
-		private V getValue()
+		public V getValue()
 		{
 			return value;
 		} // end getValue
 		
-		private void setValue(V newValue)
+		public V setValue(V newValue)
 		{
+         if (newValue == null)
+            throw new IllegalArgumentException("Cannot add null to a dictionary.");
+         V oldValue = value;
 			value = newValue;
+         return oldValue;
 		} // end setValue
+
+		private int getProbeLength()
+		{
+			return probeLength;
+		} // end getProbeLength
+
+		private void setProbeLength(int newProbeLength)
+		{
+			probeLength = newProbeLength;
+		} // end setProbeLength
+
+      // Is equal to another Map.Entry with equal key and value.
+      public boolean equals(Object other)
+      {
+         if (!(other instanceof Map.Entry))
+            return false;
+         Map.Entry<?, ?> otherEntry = (Map.Entry<?, ?>)other;
+         return key.equals(otherEntry.getKey()) && value.equals(otherEntry.getValue());
+      } // end equals
+
+      public int hashCode()
+      {
+         return key.hashCode() ^ value.hashCode();
+      } // end hashCode
+
+      public String toString()
+      {
+         return key + "=" + value;
+      } // end toString
 	} // end Entry
 } // end HashedDictionary
@@ -0,0 +1,282 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+   A class that implements a bag of objects by counting each distinct
+   entry in a hash table.
+   Notes: A HashedDictionary maps each distinct entry to its number of
+          occurrences, so add, remove(anEntry), getFrequencyOf, and contains
+          take O(1) time on average, instead of time proportional to the
+          number of entries.
+          An array also lists the distinct entries, so remove() takes the
+          last of them in O(1) time instead of searching the hash table.
+          Removing the last occurrence of an entry moves the last entry of
+          the array into its place.
+          getMode and getMostFrequent examine each distinct entry once, so
+          computing the mode of n objects takes O(n) time rather than the
+          O(n^2) of comparing every pair.
+          Entries are compared by equals and hashCode, which must be
+          consistent; null entries cannot be added.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class HashedMultiset<T> implements BagInterface<T>
+{
+   private final HashedDictionary<T, Count> counts; // Each distinct entry and its count
+   private T[] distinctEntries;                     // Each distinct entry, at the index in its count
+   private int numberOfEntries;                     // Counting duplicates
+   private static final int DEFAULT_CAPACITY = 25;
+
+   /** Creates an empty bag. */
+   public HashedMultiset()
+   {
+      this(DEFAULT_CAPACITY);
+   } // end default constructor
+
+   /** Creates an empty bag.
+       @param initialCapacity  The number of distinct entries the bag
+                               should hold before its hash table is enlarged. */
+   public HashedMultiset(int initialCapacity)
+   {
+      counts = new HashedDictionary<>(initialCapacity, true);
+
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] tempEntries = (T[])new Object[Math.max(initialCapacity, 1)]; // Unchecked cast
+      distinctEntries = tempEntries;
+      numberOfEntries = 0;
+   } // end constructor
+
+   /** Adds a new entry to this bag.
+       @param newEntry  The object to be added as a new entry.
+       @return  True if the addition is successful, or false if newEntry is null. */
+   public boolean add(T newEntry)
+   {
+      return add(newEntry, 1);
+   } // end add
+
+   /** Adds several occurrences of an entry to this bag.
+       @param newEntry  The object to be added.
+       @param occurrences  The number of times to add newEntry; not negative.
+       @return  True if the addition is successful, or false if newEntry is null. */
+   public boolean add(T newEntry, int occurrences)
+   {
+      if (occurrences < 0)
+         throw new IllegalArgumentException("Number of occurrences cannot be negative.");
+      if (newEntry == null)
+         return false;
+
+      if (occurrences > 0)
+      {
+         Count count = counts.getValue(newEntry);
+         if (count == null)
+         {
+            int index = counts.getSize();
+            if (index == distinctEntries.length)
+               distinctEntries = Arrays.copyOf(distinctEntries, 2 * index);
+            distinctEntries[index] = newEntry;
+            counts.add(newEntry, new Count(occurrences, index));
+         }
+         else
+            count.value = count.value + occurrences;
+         numberOfEntries = numberOfEntries + occurrences;
+      } // end if
+
+      return true;
+   } // end add
+
+   /** Removes one unspecified entry from this bag, if possible.
+       @return  Either the removed entry, if the removal was successful,
+                or null. */
+   public T remove()
+   {
+      T result = null;
+      int distinctCount = counts.getSize();
+      if (distinctCount > 0)
+      {
+         result = distinctEntries[distinctCount - 1];
+         remove(result);
+      } // end if
+
+      return result;
+   } // end remove
+
+   /** Removes one occurrence of a given entry from this bag, if possible.
+       @param anEntry  The entry to be removed.
+       @return  True if the removal was successful, or false if not. */
+   public boolean remove(T anEntry)
+   {
+      if (anEntry == null)
+         return false;
+
+      Count count = counts.getValue(anEntry);
+      if (count == null)
+         return false;
+
+      count.value--;
+      if (count.value == 0)
+      {
+         // Move the last distinct entry into the place of anEntry
+         int lastIndex = counts.getSize() - 1;
+         T lastEntry = distinctEntries[lastIndex];
+         distinctEntries[count.index] = lastEntry;
+         counts.getValue(lastEntry).index = count.index;
+         distinctEntries[lastIndex] = null;
+         counts.remove(anEntry);
+      } // end if
+      numberOfEntries--;
+
+      return true;
+   } // end remove
+
+   /** Removes all entries from this bag. */
+   public void clear()
+   {
+      Arrays.fill(distinctEntries, 0, counts.getSize(), null);
+      counts.clear();
+      numberOfEntries = 0;
+   } // end clear
+
+   /** Gets the current number of entries in this bag.
+       @return  The integer number of entries, counting duplicates. */
+   public int getCurrentSize()
+   {
+      return numberOfEntries;
+   } // end getCurrentSize
+
+   /** Gets the number of different entries in this bag.
+       @return  The integer number of distinct entries. */
+   public int getDistinctSize()
+   {
+      return counts.getSize();
+   } // end getDistinctSize
+
+   /** Sees whether this bag is empty.
+       @return  True if the bag is empty, or false if not. */
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   /** Counts the number of times a given entry appears in this bag.
+       @param anEntry  The entry to be counted.
+       @return  The number of times anEntry appears in the bag. */
+   public int getFrequencyOf(T anEntry)
+   {
+      if (anEntry == null)
+         return 0;
+
+      Count count = counts.getValue(anEntry);
+      if (count == null)
+         return 0;
+      else
+         return count.value;
+   } // end getFrequencyOf
+
+   /** Tests whether this bag contains a given entry.
+       @param anEntry  The entry to find.
+       @return  True if the bag contains anEntry, or false if not. */
+   public boolean contains(T anEntry)
+   {
+      return (anEntry != null) && counts.contains(anEntry);
+   } // end contains
+
+   /** Retrieves all entries that are in this bag. Duplicate entries are
+       adjacent in the array.
+       @return  A newly allocated array of all the entries in the bag. */
+   public T[] toArray()
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] result = (T[])new Object[numberOfEntries]; // Unchecked cast
+      int index = 0;
+      Iterator<Map.Entry<T, Count>> entryIterator = counts.getEntryIterator();
+      while (entryIterator.hasNext())
+      {
+         Map.Entry<T, Count> entry = entryIterator.next();
+         for (int copy = 0; copy < entry.getValue().value; copy++)
+         {
+            result[index] = entry.getKey();
+            index++;
+         } // end for
+      } // end while
+
+      return result;
+   } // end toArray
+
+   /** Gets an entry that appears in this bag most often.
+       @return  Either a most frequent entry, or null if the bag is empty. */
+   public T getMode()
+   {
+      T mode = null;
+      int modeCount = 0;
+      Iterator<Map.Entry<T, Count>> entryIterator = counts.getEntryIterator();
+      while (entryIterator.hasNext())
+      {
+         Map.Entry<T, Count> entry = entryIterator.next();
+         if (entry.getValue().value > modeCount)
+         {
+            mode = entry.getKey();
+            modeCount = entry.getValue().value;
+         } // end if
+      } // end while
+
+      return mode;
+   } // end getMode
+
+   /** Gets the entries that appear in this bag most often. Ties are
+       broken arbitrarily.
+       @param k  The number of entries desired; not negative.
+       @return  A newly allocated array of the k most frequent distinct
+                entries, or of all distinct entries if there are fewer than
+                k, in decreasing order of frequency. */
+   public T[] getMostFrequent(int k)
+   {
+      if (k < 0)
+         throw new IllegalArgumentException("Number of entries cannot be negative.");
+
+      // A min-heap of the k most frequent entries seen so far; its root is
+      // the one to discard when a more frequent entry is found
+      PriorityQueue<Map.Entry<T, Count>> heap =
+         new PriorityQueue<>(Math.max(1, k), (a, b) -> Integer.compare(a.getValue().value,
+                                                                       b.getValue().value));
+      Iterator<Map.Entry<T, Count>> entryIterator = counts.getEntryIterator();
+      while (entryIterator.hasNext() && (k > 0))
+      {
+         Map.Entry<T, Count> entry = entryIterator.next();
+         if (heap.size() < k)
+            heap.add(entry);
+         else if (entry.getValue().value > heap.peek().getValue().value)
+         {
+            heap.poll();
+            heap.add(entry);
+         } // end if
+      } // end while
+
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] result = (T[])new Object[heap.size()]; // Unchecked cast
+      for (int index = result.length - 1; index >= 0; index--)
+         result[index] = heap.poll().getKey();
+
+      return result;
+   } // end getMostFrequent
+
+   // A mutable count, so that adding a duplicate does not replace the value
+   // in the hash table.
+   private static class Count
+   {
+      private int value;
+      private int index;   // Index of the entry in distinctEntries
+
+      private Count(int value, int index)
+      {
+         this.value = value;
+         this.index = index;
+      } // end constructor
+   } // end Count
+} // end HashedMultiset
@@ -0,0 +1,119 @@
+import java.security.SecureRandom;
+
+/**
+   An interface for a function that computes the hash codes a hash table
+   uses for its keys, in place of the keys' own hashCode methods.
+   Notes: A hash table maps a hash code to a location, either by division
+          modulo a prime or by keeping only its low-order bits. Codes such
+          as those of String and Integer vary mostly in their low-order
+          bits or in regular steps, which leads to clustering.
+          The finalizers below spread every bit of hashCode over the
+          result. A seeded hasher also makes the mapping depend on a
+          secret seed, so that an adversary cannot choose keys that
+          collide in the table. Keys whose hashCodes are equal still
+          collide, however; for strings, seededString hashes the
+          characters themselves.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public interface Hasher<T>
+{
+   /** Computes the hash code of a key.
+       @param key  A key that is not null.
+       @return  The hash code of key. */
+   public int hash(T key);
+
+   /** Gets a hasher that returns each key's hashCode unchanged.
+       @return  The hasher. */
+   public static <T> Hasher<T> standard()
+   {
+      return key -> key.hashCode();
+   } // end standard
+
+   /** Gets a hasher that applies the finalization step of MurmurHash3
+       to each key's hashCode.
+       @return  The hasher. */
+   public static <T> Hasher<T> murmur()
+   {
+      return key -> murmurFinalize(key.hashCode());
+   } // end murmur
+
+   /** Gets a hasher that applies the finalization (avalanche) step of
+       xxHash32 to each key's hashCode.
+       @return  The hasher. */
+   public static <T> Hasher<T> xxHash()
+   {
+      return key ->
+      {
+         int h = key.hashCode();
+         h = h ^ (h >>> 15);
+         h = h * 0x85ebca77;
+         h = h ^ (h >>> 13);
+         h = h * 0xc2b2ae3d;
+         h = h ^ (h >>> 16);
+         return h;
+      };
+   } // end xxHash
+
+   /** Gets a hasher that combines each key's hashCode with a seed.
+       @param seed  A seed, which should be secret, such as one from randomSeed.
+       @return  The hasher. */
+   public static <T> Hasher<T> seeded(int seed)
+   {
+      return key -> murmurFinalize(key.hashCode() * 0x9e3779b9 + seed);
+   } // end seeded
+
+   /** Gets a hasher that computes the seeded 32-bit MurmurHash3 of the
+       characters in a string, ignoring the string's hashCode.
+       @param seed  A seed, which should be secret, such as one from randomSeed.
+       @return  The hasher. */
+   public static Hasher<CharSequence> seededString(int seed)
+   {
+      return key ->
+      {
+         int h = seed;
+         int length = key.length();
+
+         // Mix two characters at a time
+         int index = 0;
+         for (; index + 1 < length; index = index + 2)
+         {
+            int block = key.charAt(index) | (key.charAt(index + 1) << 16);
+            block = Integer.rotateLeft(block * 0xcc9e2d51, 15) * 0x1b873593;
+            h = Integer.rotateLeft(h ^ block, 13) * 5 + 0xe6546b64;
+         } // end for
+
+         if (index < length)
+         {
+            int block = key.charAt(index) * 0xcc9e2d51;
+            block = Integer.rotateLeft(block, 15) * 0x1b873593;
+            h = h ^ block;
+         } // end if
+
+         return murmurFinalize(h ^ (2 * length));
+      };
+   } // end seededString
+
+   /** Gets an unpredictable seed for a seeded hasher.
+       @return  A seed from a strong random number generator. */
+   public static int randomSeed()
+   {
+      return new SecureRandom().nextInt();
+   } // end randomSeed
+
+   /** Spreads the bits of a hash code so that each bit of the result
+       depends on all of its bits (the finalization step of MurmurHash3).
+       @param h  A hash code.
+       @return  The mixed hash code. */
+   public static int murmurFinalize(int h)
+   {
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end murmurFinalize
+} // end Hasher
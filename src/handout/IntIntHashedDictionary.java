@@ -0,0 +1,388 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+   A class that implements a dictionary of int keys and int values by
+   using hashing and linear probing to resolve collisions.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: Keys and values are stored in two parallel int arrays instead of
+          in Entry objects, so no operation allocates or boxes, and a probe
+          reads consecutive ints instead of following references.
+          A location whose key is 0 is empty; the entry whose key is 0,
+          if any, is stored apart from the arrays.
+          Removal shifts the entries that follow back instead of leaving
+          the removed state behind.
+          Because an int value cannot be null, operations that would return
+          null in DictionaryInterface return a missing value instead.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class IntIntHashedDictionary
+{
+   // The dictionary:
+   private int numberOfEntries;
+   private final int missingValue;                       // Returned when a key is absent
+   private static final int DEFAULT_CAPACITY = 16;
+
+   // The hash table:
+   private int[] keys;                                   // Size is a power of 2
+   private int[] values;                                 // Parallel to keys
+   private static final int FREE_KEY = 0;                // Key of an empty location
+   private boolean hasFreeKey;                           // True if key 0 is in the dictionary
+   private int freeKeyValue;                             // Value of key 0
+   private static final int MAX_SIZE = 1 << 30;          // Max size of hash table
+   private static final double MAX_LOAD_FACTOR = 0.75;   // Fraction of hash table that can be filled
+
+   /** Creates an empty dictionary whose missing value is 0. */
+   public IntIntHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY, 0);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged.
+       @param missingValue  The value that getValue, add, and remove
+                            return when a key is not in the dictionary. */
+   public IntIntHashedDictionary(int initialCapacity, int missingValue)
+   {
+      if (initialCapacity < DEFAULT_CAPACITY)
+         initialCapacity = DEFAULT_CAPACITY;
+      else if (initialCapacity > MAX_LOAD_FACTOR * MAX_SIZE)
+         throw new IllegalStateException("Attempt to create a dictionary " +
+                                         "whose capacity is larger than " +
+                                         (int)(MAX_LOAD_FACTOR * MAX_SIZE));
+      this.missingValue = missingValue;
+      numberOfEntries = 0;
+
+      int tableSize = 1;
+      while (tableSize < initialCapacity / MAX_LOAD_FACTOR)
+         tableSize = tableSize + tableSize;
+
+      keys = new int[tableSize];
+      values = new int[tableSize];
+   } // end constructor
+
+   /** Adds a new entry to this dictionary. If the given search key already
+       exists in the dictionary, replaces the corresponding value.
+       @param key    The search key of the new entry.
+       @param value  The value associated with the search key.
+       @return  Either the missing value if the new entry was added to the
+                dictionary or the value that was associated with key if
+                that value was replaced. */
+   public int add(int key, int value)
+   {
+      int oldValue = missingValue;
+      if (key == FREE_KEY)
+      {
+         if (hasFreeKey)
+            oldValue = freeKeyValue;
+         else
+         {
+            hasFreeKey = true;
+            numberOfEntries++;
+         } // end if
+         freeKeyValue = value;
+      }
+      else
+      {
+         int index = probe(key);
+         if (keys[index] == key)
+            oldValue = values[index];      // Key found; replace its value
+         else
+         { // Key not found, so insert new entry
+            keys[index] = key;
+            numberOfEntries++;
+         } // end if
+         values[index] = value;
+
+         if (isHashTableTooFull())
+            enlargeHashTable();
+      } // end if
+
+      return oldValue;
+   } // end add
+
+   /** Adds a given amount to the value associated with a search key,
+       as when the dictionary holds counters. A key that is not in the
+       dictionary is added with a value of amount.
+       @param key     The search key.
+       @param amount  The amount to add.
+       @return  The new value associated with key. */
+   public int addTo(int key, int amount)
+   {
+      int newValue;
+      if (key == FREE_KEY)
+      {
+         if (!hasFreeKey)
+         {
+            hasFreeKey = true;
+            freeKeyValue = 0;
+            numberOfEntries++;
+         } // end if
+         freeKeyValue = freeKeyValue + amount;
+         newValue = freeKeyValue;
+      }
+      else
+      {
+         int index = probe(key);
+         if (keys[index] == key)
+            values[index] = values[index] + amount;
+         else
+         {
+            keys[index] = key;
+            values[index] = amount;
+            numberOfEntries++;
+         } // end if
+         newValue = values[index];
+
+         if (isHashTableTooFull())
+            enlargeHashTable();
+      } // end if
+
+      return newValue;
+   } // end addTo
+
+   /** Removes a specific entry from this dictionary.
+       @param key  The search key of the entry to be removed.
+       @return  Either the value that was associated with the search key
+                or the missing value if no such entry exists. */
+   public int remove(int key)
+   {
+      int removedValue = missingValue;
+      if (key == FREE_KEY)
+      {
+         if (hasFreeKey)
+         {
+            removedValue = freeKeyValue;
+            hasFreeKey = false;
+            numberOfEntries--;
+         } // end if
+      }
+      else
+      {
+         int index = probe(key);
+         if (keys[index] == key)
+         {
+            removedValue = values[index];
+            removeEntryAt(index);
+            numberOfEntries--;
+         } // end if
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   /** Retrieves from this dictionary the value associated with a given
+       search key.
+       @param key  The search key of the entry to be retrieved.
+       @return  Either the value that is associated with the search key
+                or the missing value if no such entry exists. */
+   public int getValue(int key)
+   {
+      int result = missingValue;
+      if (key == FREE_KEY)
+      {
+         if (hasFreeKey)
+            result = freeKeyValue;
+      }
+      else
+      {
+         int index = probe(key);
+         if (keys[index] == key)
+            result = values[index];
+      } // end if
+
+      return result;
+   } // end getValue
+
+   /** Sees whether a specific entry is in this dictionary.
+       @param key  The search key of the desired entry.
+       @return  True if key is associated with an entry in the dictionary. */
+   public boolean contains(int key)
+   {
+      if (key == FREE_KEY)
+         return hasFreeKey;
+      else
+         return keys[probe(key)] == key;
+   } // end contains
+
+   /** Gets the value that this dictionary returns for an absent key.
+       @return  The missing value. */
+   public int getMissingValue()
+   {
+      return missingValue;
+   } // end getMissingValue
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      for (int index = 0; index < keys.length; index++)
+         keys[index] = FREE_KEY;
+
+      hasFreeKey = false;
+      numberOfEntries = 0;
+   } // end clear
+
+   /** Retrieves all search keys that are in this dictionary.
+       @return  A newly allocated array of the keys, in no particular order. */
+   public int[] getKeys()
+   {
+      int[] result = new int[numberOfEntries];
+      int resultIndex = 0;
+      if (hasFreeKey)
+      {
+         result[resultIndex] = FREE_KEY;
+         resultIndex++;
+      } // end if
+
+      for (int index = 0; index < keys.length; index++)
+      {
+         if (keys[index] != FREE_KEY)
+         {
+            result[resultIndex] = keys[index];
+            resultIndex++;
+         } // end if
+      } // end for
+
+      return result;
+   } // end getKeys
+
+   /** Creates an iterator that traverses all search keys in this dictionary
+       without boxing them. Use nextInt instead of next.
+       @return  An iterator that provides sequential access to the search
+                keys in the dictionary. */
+   public PrimitiveIterator.OfInt getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   // Spreads the bits of a key so that the low-order bits depend on all
+   // of its bits (the finalization step of MurmurHash3).
+   private static int mix(int key)
+   {
+      key = key ^ (key >>> 16);
+      key = key * 0x85ebca6b;
+      key = key ^ (key >>> 13);
+      key = key * 0xc2b2ae35;
+      key = key ^ (key >>> 16);
+      return key;
+   } // end mix
+
+   // Returns the index of either the location containing key or the empty
+   // location where it belongs.
+   // Precondition: key != FREE_KEY.
+   private int probe(int key)
+   {
+      int mask = keys.length - 1;
+      int index = mix(key) & mask;
+      while ( (keys[index] != FREE_KEY) && (keys[index] != key) )
+         index = (index + 1) & mask;                        // Linear probing
+
+      return index;
+   } // end probe
+
+   // Removes the entry at the given index, shifting back the entries that
+   // follow in the same cluster unless that would move them ahead of their
+   // home locations (backward-shift deletion).
+   private void removeEntryAt(int index)
+   {
+      int mask = keys.length - 1;
+      int gap = index;
+      int next = (index + 1) & mask;
+      while (keys[next] != FREE_KEY)
+      {
+         int home = mix(keys[next]) & mask;
+
+         // The entry at next stays unless the gap lies cyclically in [home, next)
+         if (((next - home) & mask) >= ((next - gap) & mask))
+         {
+            keys[gap] = keys[next];
+            values[gap] = values[next];
+            gap = next;
+         } // end if
+
+         next = (next + 1) & mask;
+      } // end while
+
+      keys[gap] = FREE_KEY;
+   } // end removeEntryAt
+
+   // Returns true if the load factor is exceeded.
+   private boolean isHashTableTooFull()
+   {
+      return numberOfEntries > MAX_LOAD_FACTOR * keys.length;
+   } // end isHashTableTooFull
+
+   // Doubles the size of the hash table and rehashes the table entries.
+   private void enlargeHashTable()
+   {
+      int[] oldKeys = keys;
+      int[] oldValues = values;
+      if (oldKeys.length >= MAX_SIZE)
+         throw new IllegalStateException("Dictionary has become too large.");
+
+      keys = new int[oldKeys.length + oldKeys.length];
+      values = new int[keys.length];
+      for (int index = 0; index < oldKeys.length; index++)
+      {
+         if (oldKeys[index] != FREE_KEY)
+         {
+            int newIndex = probe(oldKeys[index]);
+            keys[newIndex] = oldKeys[index];
+            values[newIndex] = oldValues[index];
+         } // end if
+      } // end for
+   } // end enlargeHashTable
+
+   private class KeyIterator implements PrimitiveIterator.OfInt
+   {
+      private int currentIndex;    // Current position in hash table
+      private int numberLeft;      // Number of entries left in iteration
+      private boolean freeKeyLeft; // True if key 0 is yet to be returned
+
+      private KeyIterator()
+      {
+         currentIndex = 0;
+         numberLeft = numberOfEntries;
+         freeKeyLeft = hasFreeKey;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      public int nextInt()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         numberLeft--;
+         if (freeKeyLeft)
+         {
+            freeKeyLeft = false;
+            return FREE_KEY;
+         } // end if
+
+         // Skip empty table locations
+         while (keys[currentIndex] == FREE_KEY)
+            currentIndex++;
+
+         int result = keys[currentIndex];
+         currentIndex++;
+         return result;
+      } // end nextInt
+   } // end KeyIterator
+} // end IntIntHashedDictionary
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements a bag of long values by using a long array.
+	The bag is never full.
+   Notes: The operations are those of BagInterface, but the entries are
+          stored as longs rather than Long objects, so each takes 8
+          bytes instead of about 24, and no operation boxes or calls
+          equals.
+          getFrequencyOf and contains scan the array in a loop with no
+          branches that the JIT compiler can vectorize; contains scans in
+          blocks so that it can stop soon after a match.
+          Because a long cannot be null, remove throws an exception
+          instead of returning null when the bag is empty.
+   @author Frank M. Carrano, Timothy M. Henry
+   @version 5.0
+*/
+public final class LongBag
+{
+	private long[] bag; // Cannot be final due to doubling
+	private int numberOfEntries;
+	private static final int DEFAULT_CAPACITY = 25;                 // Initial capacity of bag
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;  // Largest array the JVM allows
+   private static final int SCAN_BLOCK = 64;                       // Entries contains examines between tests
+
+	/** Creates an empty bag whose initial capacity is 25. */
+	public LongBag()
+	{
+		this(DEFAULT_CAPACITY);
+	} // end default constructor
+
+	/** Creates an empty bag having a given initial capacity.
+	    @param initialCapacity  The integer capacity desired. */
+	public LongBag(int initialCapacity)
+	{
+      checkCapacity(initialCapacity);
+      bag = new long[initialCapacity];
+      numberOfEntries = 0;
+	} // end constructor
+
+	/** Creates a bag containing given entries.
+	    @param contents  An array of longs. */
+   public LongBag(long[] contents)
+   {
+      checkCapacity(contents.length);
+      bag = Arrays.copyOf(contents, contents.length);
+      numberOfEntries = contents.length;
+   } // end constructor
+
+	/** Adds a new entry to this bag.
+       @param newEntry  The long to be added as a new entry.
+       @return  True. */
+	public boolean add(long newEntry)
+	{
+      if (isArrayFull())
+         doubleCapacity();
+
+      bag[numberOfEntries] = newEntry;
+      numberOfEntries++;
+
+      return true;
+	} // end add
+
+	/** Retrieves all entries that are in this bag.
+       @return  A newly allocated array of all the entries in this bag. */
+	public long[] toArray()
+	{
+      return Arrays.copyOf(bag, numberOfEntries);
+	} // end toArray
+
+	/** Sees whether this bag is empty.
+       @return  True if this bag is empty, or false if not. */
+	public boolean isEmpty()
+	{
+      return numberOfEntries == 0;
+	} // end isEmpty
+
+	/** Gets the current number of entries in this bag.
+       @return  The integer number of entries currently in this bag. */
+	public int getCurrentSize()
+	{
+      return numberOfEntries;
+	} // end getCurrentSize
+
+	/** Counts the number of times a given entry appears in this bag.
+       @param anEntry  The entry to be counted.
+       @return  The number of times anEntry appears in this bag. */
+	public int getFrequencyOf(long anEntry)
+	{
+      int counter = 0;
+      for (int index = 0; index < numberOfEntries; index++)
+         counter = counter + ((bag[index] == anEntry) ? 1 : 0);
+
+      return counter;
+	} // end getFrequencyOf
+
+	/** Tests whether this bag contains a given entry.
+       @param anEntry  The entry to locate.
+       @return  True if this bag contains anEntry, or false otherwise. */
+   public boolean contains(long anEntry)
+	{
+      return getIndexOf(anEntry) > -1;
+	} // end contains
+
+	/** Removes all entries from this bag. */
+	public void clear()
+	{
+      numberOfEntries = 0;
+	} // end clear
+
+	/** Removes one unspecified entry from this bag.
+       @return  The removed entry.
+       @throws NoSuchElementException  if the bag is empty. */
+	public long remove()
+	{
+      if (isEmpty())
+         throw new NoSuchElementException("Cannot remove from an empty bag.");
+
+      numberOfEntries--;
+      return bag[numberOfEntries];
+	} // end remove
+
+	/** Removes one occurrence of a given entry from this bag.
+       @param anEntry  The entry to be removed.
+       @return  True if the removal was successful, or false if not. */
+	public boolean remove(long anEntry)
+	{
+      int index = getIndexOf(anEntry);
+      if (index < 0)
+         return false;
+
+      numberOfEntries--;
+      bag[index] = bag[numberOfEntries]; // Replace entry to remove with last entry
+      return true;
+	} // end remove
+
+	// Locates a given entry within the array bag.
+	// Returns the index of the entry, if located,
+	// or -1 otherwise.
+	private int getIndexOf(long anEntry)
+	{
+      for (int start = 0; start < numberOfEntries; start = start + SCAN_BLOCK)
+      {
+         // Counts matches in the block without branching, then tests once
+         int end = Math.min(start + SCAN_BLOCK, numberOfEntries);
+         int matches = 0;
+         for (int index = start; index < end; index++)
+            matches = matches + ((bag[index] == anEntry) ? 1 : 0);
+
+         if (matches > 0)
+         {
+            for (int index = start; index < end; index++)
+            {
+               if (bag[index] == anEntry)
+                  return index;
+            } // end for
+         } // end if
+      } // end for
+
+      return -1;
+	} // end getIndexOf
+
+   // Returns true if the array bag is full, or false if not.
+	private boolean isArrayFull()
+	{
+		return numberOfEntries >= bag.length;
+	} // end isArrayFull
+
+   // Doubles the size of the array bag.
+	private void doubleCapacity()
+	{
+      int newLength = (int)Math.min(Math.max(2L * bag.length, 1), MAX_CAPACITY);
+      if (newLength == bag.length)
+         checkCapacity(newLength + 1);
+      bag = Arrays.copyOf(bag, newLength);
+	} // end doubleCapacity
+
+   // Throws an exception if the client requests a capacity that is too large.
+   private void checkCapacity(int capacity)
+   {
+      if (capacity < 0)
+         throw new IllegalArgumentException("Capacity cannot be negative.");
+      if (capacity > MAX_CAPACITY)
+         throw new IllegalStateException("Attempt to create a bag whose capacity exceeds " +
+                                         "allowed maximum of " + MAX_CAPACITY);
+   } // end checkCapacity
+} // end LongBag
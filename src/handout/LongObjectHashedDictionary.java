@@ -0,0 +1,307 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+   A class that implements a dictionary of long keys and object values by
+   using hashing and linear probing to resolve collisions.
+   The dictionary is unsorted and has distinct search keys.
+   Values are not null.
+   Notes: Keys are stored in a long array and values in a parallel array,
+          instead of in Entry objects, so keys are never boxed and adding
+          a key allocates nothing beyond an occasional larger table.
+          A location whose value is null is empty.
+          Removal shifts the entries that follow back instead of leaving
+          the removed state behind.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class LongObjectHashedDictionary<V>
+{
+   // The dictionary:
+   private int numberOfEntries;
+   private static final int DEFAULT_CAPACITY = 16;
+
+   // The hash table:
+   private long[] keys;                                  // Size is a power of 2
+   private V[] values;                                   // Parallel to keys; null if empty
+   private static final int MAX_SIZE = 1 << 30;          // Max size of hash table
+   private static final double MAX_LOAD_FACTOR = 0.75;   // Fraction of hash table that can be filled
+
+   public LongObjectHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged. */
+   public LongObjectHashedDictionary(int initialCapacity)
+   {
+      if (initialCapacity < DEFAULT_CAPACITY)
+         initialCapacity = DEFAULT_CAPACITY;
+      else if (initialCapacity > MAX_LOAD_FACTOR * MAX_SIZE)
+         throw new IllegalStateException("Attempt to create a dictionary " +
+                                         "whose capacity is larger than " +
+                                         (int)(MAX_LOAD_FACTOR * MAX_SIZE));
+      numberOfEntries = 0;
+
+      int tableSize = 1;
+      while (tableSize < initialCapacity / MAX_LOAD_FACTOR)
+         tableSize = tableSize + tableSize;
+
+      keys = new long[tableSize];
+      values = newValueArray(tableSize);
+   } // end constructor
+
+   /** Adds a new entry to this dictionary. If the given search key already
+       exists in the dictionary, replaces the corresponding value.
+       @param key    The search key of the new entry.
+       @param value  An object associated with the search key.
+       @return  Either null if the new entry was added to the dictionary
+                or the value that was associated with key if that value
+                was replaced. */
+   public V add(long key, V value)
+   {
+      if (value == null)
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      int index = probe(key);
+      V oldValue = values[index];
+      if (oldValue == null)
+      { // Key not found, so insert new entry
+         keys[index] = key;
+         numberOfEntries++;
+      } // end if
+      values[index] = value;
+
+      if (isHashTableTooFull())
+         enlargeHashTable();
+
+      return oldValue;
+   } // end add
+
+   /** Removes a specific entry from this dictionary.
+       @param key  The search key of the entry to be removed.
+       @return  Either the value that was associated with the search key
+                or null if no such object exists. */
+   public V remove(long key)
+   {
+      int index = probe(key);
+      V removedValue = values[index];
+      if (removedValue != null)
+      {
+         removeEntryAt(index);
+         numberOfEntries--;
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   /** Retrieves from this dictionary the value associated with a given
+       search key.
+       @param key  The search key of the entry to be retrieved.
+       @return  Either the value that is associated with the search key
+                or null if no such object exists. */
+   public V getValue(long key)
+   {
+      return values[probe(key)];
+   } // end getValue
+
+   /** Sees whether a specific entry is in this dictionary.
+       @param key  The search key of the desired entry.
+       @return  True if key is associated with an entry in the dictionary. */
+   public boolean contains(long key)
+   {
+      return values[probe(key)] != null;
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      for (int index = 0; index < values.length; index++)
+         values[index] = null;
+
+      numberOfEntries = 0;
+   } // end clear
+
+   /** Retrieves all search keys that are in this dictionary.
+       @return  A newly allocated array of the keys, in no particular order. */
+   public long[] getKeys()
+   {
+      long[] result = new long[numberOfEntries];
+      int resultIndex = 0;
+      for (int index = 0; index < values.length; index++)
+      {
+         if (values[index] != null)
+         {
+            result[resultIndex] = keys[index];
+            resultIndex++;
+         } // end if
+      } // end for
+
+      return result;
+   } // end getKeys
+
+   /** Creates an iterator that traverses all search keys in this dictionary
+       without boxing them. Use nextLong instead of next.
+       @return  An iterator that provides sequential access to the search
+                keys in the dictionary. */
+   public PrimitiveIterator.OfLong getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   /** Creates an iterator that traverses all values in this dictionary.
+       @return  An iterator that provides sequential access to the values
+                in this dictionary. */
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   // Reduces a long key to a well-mixed int (the finalization step of
+   // MurmurHash3, 64-bit version).
+   private static int mix(long key)
+   {
+      key = key ^ (key >>> 33);
+      key = key * 0xff51afd7ed558ccdL;
+      key = key ^ (key >>> 33);
+      key = key * 0xc4ceb9fe1a85ec53L;
+      key = key ^ (key >>> 33);
+      return (int)key;
+   } // end mix
+
+   // Returns the index of either the location containing key or the empty
+   // location where it belongs.
+   private int probe(long key)
+   {
+      int mask = keys.length - 1;
+      int index = mix(key) & mask;
+      while ( (values[index] != null) && (keys[index] != key) )
+         index = (index + 1) & mask;                        // Linear probing
+
+      return index;
+   } // end probe
+
+   // Removes the entry at the given index, shifting back the entries that
+   // follow in the same cluster unless that would move them ahead of their
+   // home locations (backward-shift deletion).
+   private void removeEntryAt(int index)
+   {
+      int mask = keys.length - 1;
+      int gap = index;
+      int next = (index + 1) & mask;
+      while (values[next] != null)
+      {
+         int home = mix(keys[next]) & mask;
+
+         // The entry at next stays unless the gap lies cyclically in [home, next)
+         if (((next - home) & mask) >= ((next - gap) & mask))
+         {
+            keys[gap] = keys[next];
+            values[gap] = values[next];
+            gap = next;
+         } // end if
+
+         next = (next + 1) & mask;
+      } // end while
+
+      values[gap] = null;
+   } // end removeEntryAt
+
+   // Returns true if the load factor is exceeded.
+   private boolean isHashTableTooFull()
+   {
+      return numberOfEntries > MAX_LOAD_FACTOR * keys.length;
+   } // end isHashTableTooFull
+
+   // Doubles the size of the hash table and rehashes the table entries.
+   private void enlargeHashTable()
+   {
+      long[] oldKeys = keys;
+      V[] oldValues = values;
+      if (oldKeys.length >= MAX_SIZE)
+         throw new IllegalStateException("Dictionary has become too large.");
+
+      keys = new long[oldKeys.length + oldKeys.length];
+      values = newValueArray(keys.length);
+      for (int index = 0; index < oldKeys.length; index++)
+      {
+         if (oldValues[index] != null)
+         {
+            int newIndex = probe(oldKeys[index]);
+            keys[newIndex] = oldKeys[index];
+            values[newIndex] = oldValues[index];
+         } // end if
+      } // end for
+   } // end enlargeHashTable
+
+   private V[] newValueArray(int size)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      V[] temp = (V[])new Object[size]; // Unchecked cast
+      return temp;
+   } // end newValueArray
+
+   // Traverses the occupied locations of the hash table.
+   private class TableIterator
+   {
+      private int currentIndex; // Current position in hash table
+      private int numberLeft;   // Number of entries left in iteration
+
+      private TableIterator()
+      {
+         currentIndex = 0;
+         numberLeft = numberOfEntries;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      // Returns the index of the next occupied location.
+      int nextIndex()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         // Skip empty table locations
+         while (values[currentIndex] == null)
+            currentIndex++;
+
+         numberLeft--;
+         currentIndex++;
+         return currentIndex - 1;
+      } // end nextIndex
+   } // end TableIterator
+
+   private class KeyIterator extends TableIterator implements PrimitiveIterator.OfLong
+   {
+      public long nextLong()
+      {
+         return keys[nextIndex()];
+      } // end nextLong
+   } // end KeyIterator
+
+   private class ValueIterator extends TableIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return values[nextIndex()];
+      } // end next
+   } // end ValueIterator
+} // end LongObjectHashedDictionary
@@ -0,0 +1,525 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements the ADT dictionary by using hashing and linear
+   probing in a memory-mapped file, so that the dictionary outlives the
+   program that builds it.
+   The dictionary is unsorted and has distinct search keys.
+   Notes: Every location of the hash table is a fixed-width slot in the file:
+             state (1 byte), hash code (4 bytes),
+             key length (2 bytes), key (maxKeyBytes bytes),
+             value length (2 bytes), value (maxValueBytes bytes).
+          A Codec converts keys and values to and from bytes. Keys are
+          hashed and compared by their bytes, not by hashCode and equals,
+          so the layout does not depend on the program that wrote it.
+          Reopening an existing file maps it and reads its header; nothing
+          is rehashed or copied onto the Java heap.
+          The table lives outside the heap, so the garbage collector never
+          scans it. Enlarging the table writes a new file and moves it over
+          the old one.
+          Removal shifts the entries that follow back instead of leaving
+          the removed state behind.
+          Changes reach the file when the operating system writes them back,
+          or when flush or close is called.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class MappedHashedDictionary<K, V> implements DictionaryInterface<K, V>, Closeable
+{
+   /** Converts objects to and from the bytes stored in the file. */
+   public interface Codec<T>
+   {
+      byte[] toBytes(T item);
+      T fromBytes(byte[] bytes);
+
+      /** Stores a String as UTF-8. */
+      Codec<String> STRING = new Codec<String>()
+      {
+         public byte[] toBytes(String item)
+         {
+            return item.getBytes(StandardCharsets.UTF_8);
+         } // end toBytes
+
+         public String fromBytes(byte[] bytes)
+         {
+            return new String(bytes, StandardCharsets.UTF_8);
+         } // end fromBytes
+      }; // end STRING
+
+      /** Stores a Long as 8 bytes. */
+      Codec<Long> LONG = new Codec<Long>()
+      {
+         public byte[] toBytes(Long item)
+         {
+            return ByteBuffer.allocate(Long.BYTES).putLong(item).array();
+         } // end toBytes
+
+         public Long fromBytes(byte[] bytes)
+         {
+            return ByteBuffer.wrap(bytes).getLong();
+         } // end fromBytes
+      }; // end LONG
+   } // end Codec
+
+   // The file:
+   private final Path file;
+   private MappedByteBuffer buffer;
+   private static final int MAGIC = 0x48415348;          // "HASH"
+   private static final int VERSION = 1;
+   private static final int HEADER_SIZE = 64;            // Bytes before the first slot
+   private static final int MAGIC_OFFSET = 0;            // Header fields:
+   private static final int VERSION_OFFSET = 4;
+   private static final int TABLE_SIZE_OFFSET = 8;
+   private static final int KEY_WIDTH_OFFSET = 12;
+   private static final int VALUE_WIDTH_OFFSET = 16;
+   private static final int ENTRIES_OFFSET = 20;
+
+   // The slots:
+   private final Codec<K> keyCodec;
+   private final Codec<V> valueCodec;
+   private final int maxKeyBytes;
+   private final int maxValueBytes;
+   private final int slotWidth;                          // Bytes per slot
+   private int tableSize;                                // Number of slots; a power of 2
+   private int numberOfEntries;
+   private static final byte EMPTY = 0;
+   private static final byte FULL = 1;
+   private static final int HASH_OFFSET = 1;             // Offsets within a slot
+   private static final int KEY_OFFSET = 5;
+   private static final int DEFAULT_SIZE = 64;
+   private static final double MAX_LOAD_FACTOR = 0.75;  // Fraction of hash table that can be filled
+
+   /** Opens the dictionary stored in a file, or creates an empty one there
+       if the file does not exist.
+       @param file  The file that holds the dictionary.
+       @param keyCodec  Converts keys to and from bytes.
+       @param valueCodec  Converts values to and from bytes.
+       @param maxKeyBytes  The greatest number of bytes in a converted key.
+       @param maxValueBytes  The greatest number of bytes in a converted value.
+       @throws IllegalArgumentException  if an existing file was created with
+                                         different widths, is not a
+                                         dictionary file, or is damaged.
+       @throws UncheckedIOException  if the file cannot be read or written. */
+   public MappedHashedDictionary(String file, Codec<K> keyCodec, Codec<V> valueCodec,
+                                 int maxKeyBytes, int maxValueBytes)
+   {
+      if ( (maxKeyBytes <= 0) || (maxKeyBytes > 0xFFFF) ||
+           (maxValueBytes <= 0) || (maxValueBytes > 0xFFFF) )
+         throw new IllegalArgumentException("Key and value widths must be between 1 and 65535.");
+      this.file = Paths.get(file);
+      this.keyCodec = keyCodec;
+      this.valueCodec = valueCodec;
+      this.maxKeyBytes = maxKeyBytes;
+      this.maxValueBytes = maxValueBytes;
+      slotWidth = KEY_OFFSET + 2 + maxKeyBytes + 2 + maxValueBytes;
+
+      try
+      {
+         if (Files.exists(this.file))
+         { // Reopen: read the header only
+            long fileSize = Files.size(this.file);
+            if (fileSize < HEADER_SIZE)
+               throw new IllegalArgumentException(file + " is not a dictionary file.");
+            buffer = map(this.file, fileSize);
+            if ( (buffer.getInt(MAGIC_OFFSET) != MAGIC) || (buffer.getInt(VERSION_OFFSET) != VERSION) )
+               throw new IllegalArgumentException(file + " is not a dictionary file.");
+            if ( (buffer.getInt(KEY_WIDTH_OFFSET) != maxKeyBytes) ||
+                 (buffer.getInt(VALUE_WIDTH_OFFSET) != maxValueBytes) )
+               throw new IllegalArgumentException(file + " uses different key or value widths.");
+            tableSize = buffer.getInt(TABLE_SIZE_OFFSET);
+            numberOfEntries = buffer.getInt(ENTRIES_OFFSET);
+
+            // The table size must be a power of 2 whose slots fit in the file,
+            // and the table must have a location left empty
+            if ( (tableSize <= 0) || (Integer.bitCount(tableSize) != 1) ||
+                 (fileSize < HEADER_SIZE + (long)tableSize * slotWidth) ||
+                 (numberOfEntries < 0) || (numberOfEntries >= tableSize) )
+               throw new IllegalArgumentException(file + " is damaged or truncated.");
+         }
+         else
+         {
+            tableSize = DEFAULT_SIZE;
+            buffer = createFile(this.file, tableSize);
+            numberOfEntries = 0;
+         } // end if
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException(e);
+      } // end try
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+      byte[] keyBytes = toBytes(keyCodec, key, maxKeyBytes);
+      byte[] valueBytes = toBytes(valueCodec, value, maxValueBytes);
+      int hash = hash(keyBytes);
+
+      int slot = probe(keyBytes, hash);
+      V oldValue = null;
+      if (buffer.get(offsetOf(slot)) == FULL)
+         oldValue = readValue(slot);          // Key found; replace its value
+      else
+      { // Key not found, so insert new entry
+         int offset = offsetOf(slot);
+         buffer.put(offset, FULL);
+         buffer.putInt(offset + HASH_OFFSET, hash);
+         writeBytes(offset + KEY_OFFSET, keyBytes);
+         setNumberOfEntries(numberOfEntries + 1);
+      } // end if
+      writeBytes(offsetOf(slot) + KEY_OFFSET + 2 + maxKeyBytes, valueBytes);
+
+      if (numberOfEntries > MAX_LOAD_FACTOR * tableSize)
+         enlargeHashTable();
+
+      return oldValue;
+   } // end add
+
+   public V remove(K key)
+   {
+      byte[] keyBytes = keyCodec.toBytes(key);
+      V removedValue = null;
+      if (keyBytes.length <= maxKeyBytes)
+      {
+         int slot = probe(keyBytes, hash(keyBytes));
+         if (buffer.get(offsetOf(slot)) == FULL)
+         {
+            removedValue = readValue(slot);
+            removeEntryAt(slot);
+            setNumberOfEntries(numberOfEntries - 1);
+         } // end if
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      byte[] keyBytes = keyCodec.toBytes(key);
+      V result = null;
+      if (keyBytes.length <= maxKeyBytes)
+      {
+         int slot = probe(keyBytes, hash(keyBytes));
+         if (buffer.get(offsetOf(slot)) == FULL)
+            result = readValue(slot);
+      } // end if
+
+      return result;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return getValue(key) != null;
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      for (int slot = 0; slot < tableSize; slot++)
+         buffer.put(offsetOf(slot), EMPTY);
+      setNumberOfEntries(0);
+   } // end clear
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   /** Writes any changes to this dictionary to its file. */
+   public void flush()
+   {
+      buffer.force();
+   } // end flush
+
+   /** Writes any changes to this dictionary to its file. The dictionary
+       should not be used afterward. */
+   public void close()
+   {
+      flush();
+   } // end close
+
+   // Returns the slot that contains the key with the given bytes, or the
+   // empty slot where it belongs.
+   private int probe(byte[] keyBytes, int hash)
+   {
+      int index = hash & (tableSize - 1);
+      boolean found = false;
+      while ( !found && (buffer.get(offsetOf(index)) == FULL) )
+      {
+         int offset = offsetOf(index);
+         if ( (buffer.getInt(offset + HASH_OFFSET) == hash) &&
+              bytesMatch(offset + KEY_OFFSET, keyBytes) )
+            found = true;                                   // Key found
+         else
+            index = (index + 1) & (tableSize - 1);          // Linear probing
+      } // end while
+
+      return index;
+   } // end probe
+
+   // Returns true if the length-prefixed bytes at offset equal the given bytes.
+   private boolean bytesMatch(int offset, byte[] bytes)
+   {
+      if ((buffer.getShort(offset) & 0xFFFF) != bytes.length)
+         return false;
+
+      for (int index = 0; index < bytes.length; index++)
+      {
+         if (buffer.get(offset + 2 + index) != bytes[index])
+            return false;
+      } // end for
+
+      return true;
+   } // end bytesMatch
+
+   // Removes the entry in the given slot, shifting back the entries that
+   // follow in the same cluster unless that would move them ahead of their
+   // home slots (backward-shift deletion).
+   private void removeEntryAt(int slot)
+   {
+      int mask = tableSize - 1;
+      int gap = slot;
+      int next = (slot + 1) & mask;
+      while (buffer.get(offsetOf(next)) == FULL)
+      {
+         int home = buffer.getInt(offsetOf(next) + HASH_OFFSET) & mask;
+
+         // The entry at next stays unless the gap lies cyclically in [home, next)
+         if (((next - home) & mask) >= ((next - gap) & mask))
+         {
+            copySlot(buffer, next, buffer, gap);
+            gap = next;
+         } // end if
+
+         next = (next + 1) & mask;
+      } // end while
+
+      buffer.put(offsetOf(gap), EMPTY);
+   } // end removeEntryAt
+
+   // Doubles the number of slots. The entries are copied, with their stored
+   // hash codes, into a new file that then replaces the old one.
+   private void enlargeHashTable()
+   {
+      long newSize = 2L * tableSize;
+      if (HEADER_SIZE + newSize * slotWidth > Integer.MAX_VALUE)
+         throw new IllegalStateException("Dictionary has become too large.");
+
+      Path newFile = file.resolveSibling(file.getFileName() + ".tmp");
+      try
+      {
+         Files.deleteIfExists(newFile);
+         MappedByteBuffer newBuffer = createFile(newFile, (int)newSize);
+         int mask = (int)newSize - 1;
+         for (int slot = 0; slot < tableSize; slot++)
+         {
+            if (buffer.get(offsetOf(slot)) == FULL)
+            {
+               int newSlot = buffer.getInt(offsetOf(slot) + HASH_OFFSET) & mask;
+               while (newBuffer.get(HEADER_SIZE + newSlot * slotWidth) == FULL)
+                  newSlot = (newSlot + 1) & mask;
+               copySlot(buffer, slot, newBuffer, newSlot);
+            } // end if
+         } // end for
+         newBuffer.putInt(ENTRIES_OFFSET, numberOfEntries);
+         newBuffer.force();
+
+         Files.move(newFile, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+         buffer = newBuffer;
+         tableSize = (int)newSize;
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException(e);
+      } // end try
+   } // end enlargeHashTable
+
+   // Creates a file that holds an empty table of the given size, and maps it.
+   private MappedByteBuffer createFile(Path path, int size) throws IOException
+   {
+      long length = HEADER_SIZE + (long)size * slotWidth;
+      if (length > Integer.MAX_VALUE)
+         throw new IllegalStateException("Dictionary has become too large.");
+
+      MappedByteBuffer result = map(path, length); // New file is filled with zeros (EMPTY)
+      result.putInt(MAGIC_OFFSET, MAGIC);
+      result.putInt(VERSION_OFFSET, VERSION);
+      result.putInt(TABLE_SIZE_OFFSET, size);
+      result.putInt(KEY_WIDTH_OFFSET, maxKeyBytes);
+      result.putInt(VALUE_WIDTH_OFFSET, maxValueBytes);
+      result.putInt(ENTRIES_OFFSET, 0);
+      return result;
+   } // end createFile
+
+   private static MappedByteBuffer map(Path path, long length) throws IOException
+   {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                                  StandardOpenOption.READ,
+                                                  StandardOpenOption.WRITE))
+      {
+         // The mapping remains valid after the channel is closed
+         return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      } // end try
+   } // end map
+
+   private void copySlot(ByteBuffer from, int fromSlot, ByteBuffer to, int toSlot)
+   {
+      ByteBuffer source = from.duplicate();
+      source.position(HEADER_SIZE + fromSlot * slotWidth);
+      source.limit(HEADER_SIZE + fromSlot * slotWidth + slotWidth);
+      ByteBuffer destination = to.duplicate();
+      destination.position(HEADER_SIZE + toSlot * slotWidth);
+      destination.put(source);
+   } // end copySlot
+
+   private int offsetOf(int slot)
+   {
+      return HEADER_SIZE + slot * slotWidth;
+   } // end offsetOf
+
+   private void setNumberOfEntries(int count)
+   {
+      numberOfEntries = count;
+      buffer.putInt(ENTRIES_OFFSET, count);
+   } // end setNumberOfEntries
+
+   private static <T> byte[] toBytes(Codec<T> codec, T item, int maxBytes)
+   {
+      byte[] bytes = codec.toBytes(item);
+      if (bytes.length > maxBytes)
+         throw new IllegalArgumentException(item + " needs " + bytes.length +
+                                            " bytes, but at most " + maxBytes + " fit.");
+      return bytes;
+   } // end toBytes
+
+   // Writes bytes, preceded by their length, at the given offset.
+   private void writeBytes(int offset, byte[] bytes)
+   {
+      buffer.putShort(offset, (short)bytes.length);
+      ByteBuffer destination = buffer.duplicate();
+      destination.position(offset + 2);
+      destination.put(bytes);
+   } // end writeBytes
+
+   // Reads the length-prefixed bytes at the given offset.
+   private byte[] readBytes(int offset)
+   {
+      byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+      ByteBuffer source = buffer.duplicate();
+      source.position(offset + 2);
+      source.get(bytes);
+      return bytes;
+   } // end readBytes
+
+   private K readKey(int slot)
+   {
+      return keyCodec.fromBytes(readBytes(offsetOf(slot) + KEY_OFFSET));
+   } // end readKey
+
+   private V readValue(int slot)
+   {
+      return valueCodec.fromBytes(readBytes(offsetOf(slot) + KEY_OFFSET + 2 + maxKeyBytes));
+   } // end readValue
+
+   // Returns a hash code of the given bytes that is the same in every
+   // program: FNV-1a, followed by the finalization step of MurmurHash3.
+   private static int hash(byte[] bytes)
+   {
+      int h = 0x811c9dc5;
+      for (byte aByte : bytes)
+         h = (h ^ (aByte & 0xFF)) * 0x01000193;
+
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end hash
+
+   // Traverses the full slots of the table.
+   private class SlotIterator
+   {
+      private int currentSlot; // Current position in table
+      private int numberLeft;  // Number of entries left in iteration
+
+      private SlotIterator()
+      {
+         currentSlot = 0;
+         numberLeft = numberOfEntries;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      // Returns the next full slot.
+      int nextSlot()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         // Skip empty slots
+         while (buffer.get(offsetOf(currentSlot)) != FULL)
+            currentSlot++;
+
+         numberLeft--;
+         currentSlot++;
+         return currentSlot - 1;
+      } // end nextSlot
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end SlotIterator
+
+   private class KeyIterator extends SlotIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         return readKey(nextSlot());
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends SlotIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return readValue(nextSlot());
+      } // end next
+   } // end ValueIterator
+} // end MappedHashedDictionary
@@ -2,16 +2,34 @@ import java.util.Arrays;
 /**
    A class that implements a bag of objects by using an array.
 	The bag is never full.
+   When the array is full, it is replaced by a larger one whose size is
+   given by a growth factor and a minimum increment; by default, its size
+   doubles. ensureCapacity and trimToSize set the size directly.
+   A segmented bag instead stores its entries in fixed-size segments and
+   grows by adding a segment, so it never copies its entries or needs
+   twice their memory while growing.
+   An indexed bag also keeps a hash table that maps each distinct entry
+   to the indices at which it occurs in the array, so that contains,
+   getFrequencyOf, and remove(anEntry) take O(1) time on average instead
+   of O(n). It uses more memory, and it cannot contain null.
    @author Frank M. Carrano, Timothy M. Henry
    @version 5.0
 */
 public final class ResizableArrayBag<T> implements BagInterface<T>
 {
-	private T[] bag; // Cannot be final due to doubling
+	private T[] bag; // Cannot be final due to doubling; null if segmented
 	private int numberOfEntries;
+   private T[][] segments;    // Segmented store; null if not segmented
+   private int segmentCount;  // Number of segments allocated
+   private double growthFactor = 2.0;
+   private int growthIncrement = 0;
    private boolean integrityOK = false;
+   private final HashedDictionary<T, Positions> entryIndex; // Entry -> its indices; null if not indexed
+   private int[] slots;    // slots[i] is the location of i in its entry's Positions; null if not indexed
 	private static final int DEFAULT_CAPACITY = 25; // Initial capacity of bag
-	private static final int MAX_CAPACITY = 10000;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // Largest array the JVM allows
+   private static final int SEGMENT_SHIFT = 10;
+   private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;    // Entries per segment
 
 	/** Creates an empty bag whose initial capacity is 25. */
 	public ResizableArrayBag() 
@@ -23,13 +41,55 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
 	    @param initialCapacity  The integer capacity desired. */
 	public ResizableArrayBag(int initialCapacity)
 	{
+      this(initialCapacity, false);
+	} // end constructor
+
+	/** Creates an empty bag having a given initial capacity.
+	    @param initialCapacity  The integer capacity desired.
+	    @param indexed  True if the bag should keep a hash index of its
+	                    entries, so that searches take O(1) time. */
+	public ResizableArrayBag(int initialCapacity, boolean indexed)
+	{
+      this(initialCapacity, indexed, false);
+	} // end constructor
+
+	/** Creates an empty bag having a given initial capacity.
+	    @param initialCapacity  The integer capacity desired.
+	    @param indexed  True if the bag should keep a hash index of its
+	                    entries, so that searches take O(1) time.
+	    @param segmented  True if the bag should store its entries in
+	                      segments, so that it grows without copying them. */
+	public ResizableArrayBag(int initialCapacity, boolean indexed, boolean segmented)
+	{
       checkCapacity(initialCapacity);
       
-      // The cast is safe because the new array contains null entries
-      @SuppressWarnings("unchecked")
-      T[] tempBag = (T[])new Object[initialCapacity]; // Unchecked cast
-      bag = tempBag;
+      if (segmented)
+      {
+         bag = null;
+         segmentCount = 0;
+         segments = newSegmentArray(Math.max(1, (initialCapacity + SEGMENT_SIZE - 1) / SEGMENT_SIZE));
+         while (getCapacity() < initialCapacity)
+            addSegment();
+      }
+      else
+      {
+         // The cast is safe because the new array contains null entries
+         @SuppressWarnings("unchecked")
+         T[] tempBag = (T[])new Object[initialCapacity]; // Unchecked cast
+         bag = tempBag;
+         segments = null;
+      } // end if
       numberOfEntries = 0;
+      if (indexed)
+      {
+         entryIndex = new HashedDictionary<>(initialCapacity, true);
+         slots = new int[getCapacity()];
+      }
+      else
+      {
+         entryIndex = null;
+         slots = null;
+      } // end if
       integrityOK = true;
 	} // end constructor
 
@@ -40,21 +100,28 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
       checkCapacity(contents.length);
       bag = Arrays.copyOf(contents, contents.length);
       numberOfEntries = contents.length;
+      entryIndex = null;
+      slots = null;
       integrityOK = true;
    } // end constructor
        
 	/** Adds a new entry to this bag.
        @param newEntry  The object to be added as a new entry.
-       @return  True. */
+       @return  True, or false if the bag is indexed and newEntry is null. */
 	public boolean add(T newEntry)
 	{
 		checkintegrity();
+      if ((entryIndex != null) && (newEntry == null))
+         return false;
+
       if (isArrayFull())
       {
-         doubleCapacity();
+         grow(numberOfEntries + 1);
       } // end if
       
-      bag[numberOfEntries] = newEntry;
+      setEntry(numberOfEntries, newEntry);
+      if (entryIndex != null)
+         addToIndex(newEntry, numberOfEntries);
       numberOfEntries++;
       
       return true;
@@ -69,10 +136,21 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
       // The cast is safe because the new array contains null entries.
       @SuppressWarnings("unchecked")
       T[] result = (T[])new Object[numberOfEntries]; // Unchecked cast
-      for (int index = 0; index < numberOfEntries; index++)
+      if (segments == null)
       {
-         result[index] = bag[index];
-      } // end for
+         for (int index = 0; index < numberOfEntries; index++)
+         {
+            result[index] = bag[index];
+         } // end for
+      }
+      else
+      {
+         for (int start = 0; start < numberOfEntries; start = start + SEGMENT_SIZE)
+         {
+            int length = Math.min(SEGMENT_SIZE, numberOfEntries - start);
+            System.arraycopy(segments[start >>> SEGMENT_SHIFT], 0, result, start, length);
+         } // end for
+      } // end if
       
       return result;
 	} // end toArray
@@ -97,11 +175,17 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
 	public int getFrequencyOf(T anEntry)
 	{
 		checkintegrity();
+      if (entryIndex != null)
+      {
+         Positions positions = entryIndex.getValue(anEntry);
+         return (positions == null) ? 0 : positions.size;
+      } // end if
+
       int counter = 0;
       
       for (int index = 0; index < numberOfEntries; index++)
       {
-         if (anEntry.equals(bag[index]))
+         if (anEntry.equals(getEntry(index)))
          {
             counter++;
          } // end if
@@ -153,13 +237,19 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
    // Precondition: checkintegrity has been called.
 	private int getIndexOf(T anEntry)
 	{
+      if (entryIndex != null)
+      {
+         Positions positions = entryIndex.getValue(anEntry);
+         return (positions == null) ? -1 : positions.indices[positions.size - 1];
+      } // end if
+
 		int where = -1;
 		boolean found = false;
 		int index = 0;
       
       while (!found && (index < numberOfEntries))
 		{
-			if (anEntry.equals(bag[index]))
+			if (anEntry.equals(getEntry(index)))
 			{
 				found = true;
 				where = index;
@@ -183,10 +273,12 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
       
 		if (!isEmpty() && (givenIndex >= 0))
 		{
-         result = bag[givenIndex];          // Entry to remove
+         result = getEntry(givenIndex);                // Entry to remove
          int lastIndex = numberOfEntries - 1;
-         bag[givenIndex] = bag[lastIndex];  // Replace entry to remove with last entry
-         bag[lastIndex] = null;             // Remove reference to last entry
+         if (entryIndex != null)
+            removeFromIndex(givenIndex, lastIndex);
+         setEntry(givenIndex, getEntry(lastIndex));    // Replace entry to remove with last entry
+         setEntry(lastIndex, null);                    // Remove reference to last entry
          numberOfEntries--;
 		} // end if
       
@@ -196,21 +288,190 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
    // Returns true if the array bag is full, or false if not.
 	private boolean isArrayFull()
 	{
-		return numberOfEntries >= bag.length;
+		return numberOfEntries >= getCapacity();
 	} // end isArrayFull
+
+	/** Gets the number of entries this bag can hold before it must grow.
+       @return  The capacity of the bag. */
+   public int getCapacity()
+   {
+      if (segments == null)
+         return bag.length;
+      else
+         return (int)Math.min((long)segmentCount << SEGMENT_SHIFT, MAX_CAPACITY);
+   } // end getCapacity
+
+	/** Sets how this bag grows when it is full. The new capacity is the
+       larger of the old capacity times growthFactor and the old capacity
+       plus minimumIncrement. A segmented bag ignores this policy and
+       always grows by one segment.
+       @param growthFactor  A factor of at least 1.0.
+       @param minimumIncrement  The least number of entries to add;
+                                positive if growthFactor is 1.0. */
+   public void setGrowthPolicy(double growthFactor, int minimumIncrement)
+   {
+      if ((growthFactor < 1.0) || (minimumIncrement < 0) ||
+          ((growthFactor == 1.0) && (minimumIncrement == 0)))
+         throw new IllegalArgumentException("Growth policy must increase the capacity.");
+      this.growthFactor = growthFactor;
+      this.growthIncrement = minimumIncrement;
+   } // end setGrowthPolicy
+
+	/** Increases the capacity of this bag, if necessary, so that it can
+       hold at least a given number of entries without growing.
+       @param minimumCapacity  The desired capacity. */
+   public void ensureCapacity(int minimumCapacity)
+   {
+		checkintegrity();
+      if (minimumCapacity > getCapacity())
+      {
+         checkCapacity(minimumCapacity);
+         if (segments == null)
+            resize(minimumCapacity);
+         else
+         {
+            while (getCapacity() < minimumCapacity)
+               addSegment();
+         } // end if
+      } // end if
+   } // end ensureCapacity
+
+	/** Reduces the capacity of this bag to its current size, or for a
+       segmented bag, releases the segments it does not use. */
+   public void trimToSize()
+   {
+		checkintegrity();
+      if (segments == null)
+      {
+         if (numberOfEntries < bag.length)
+            resize(numberOfEntries);
+      }
+      else
+      {
+         int neededSegments = (numberOfEntries + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+         while (segmentCount > neededSegments)
+         {
+            segmentCount--;
+            segments[segmentCount] = null;
+         } // end while
+         if (slots != null)
+            slots = Arrays.copyOf(slots, getCapacity());
+      } // end if
+   } // end trimToSize
    
-   // Doubles the size of the array bag.
-   // Precondition: checkInitialization has been called.
-	private void doubleCapacity()
+   // Enlarges the bag so that it can hold at least minimumCapacity entries,
+   // following the growth policy.
+   // Precondition: checkintegrity has been called.
+	private void grow(int minimumCapacity)
+	{
+      checkCapacity(minimumCapacity);
+      if (segments == null)
+      {
+         long newLength = Math.max((long)(bag.length * growthFactor),
+                                   (long)bag.length + growthIncrement);
+         newLength = Math.min(Math.max(newLength, minimumCapacity), MAX_CAPACITY);
+         resize((int)newLength);
+      }
+      else
+      {
+         while (getCapacity() < minimumCapacity)
+            addSegment();
+      } // end if
+	} // end grow
+
+   // Replaces the array with one of a given length, which is at least
+   // numberOfEntries.
+	private void resize(int newLength)
 	{
-      int newLength = 2 * bag.length;
-      checkCapacity(newLength);
       bag = Arrays.copyOf(bag, newLength);
-	} // end doubleCapacity
+      if (slots != null)
+         slots = Arrays.copyOf(slots, newLength);
+	} // end resize
+
+   // Adds an empty segment to the segmented store.
+   private void addSegment()
+   {
+      if (segmentCount == segments.length)
+         segments = Arrays.copyOf(segments, 2 * segments.length); // Copies only references to segments
+
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] segment = (T[])new Object[SEGMENT_SIZE]; // Unchecked cast
+      segments[segmentCount] = segment;
+      segmentCount++;
+      if (slots != null)
+         slots = Arrays.copyOf(slots, getCapacity());
+   } // end addSegment
+
+   // Returns an array of segmentCount references to segments.
+   private T[][] newSegmentArray(int segmentCount)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[][] result = (T[][])new Object[segmentCount][]; // Unchecked cast
+      return result;
+   } // end newSegmentArray
+
+   // Returns the entry at a given index in the array or segmented store.
+   private T getEntry(int givenIndex)
+   {
+      if (segments == null)
+         return bag[givenIndex];
+      else
+         return segments[givenIndex >>> SEGMENT_SHIFT][givenIndex & (SEGMENT_SIZE - 1)];
+   } // end getEntry
+
+   // Replaces the entry at a given index in the array or segmented store.
+   private void setEntry(int givenIndex, T anEntry)
+   {
+      if (segments == null)
+         bag[givenIndex] = anEntry;
+      else
+         segments[givenIndex >>> SEGMENT_SHIFT][givenIndex & (SEGMENT_SIZE - 1)] = anEntry;
+   } // end setEntry
+
+   // Records in the index that newEntry is at index newIndex.
+   // Precondition: The bag is indexed, and newEntry is not null.
+   private void addToIndex(T newEntry, int newIndex)
+   {
+      Positions positions = entryIndex.getValue(newEntry);
+      if (positions == null)
+      {
+         positions = new Positions();
+         entryIndex.add(newEntry, positions);
+      } // end if
+
+      slots[newIndex] = positions.add(newIndex);
+   } // end addToIndex
+
+   // Updates the index before removeEntry removes the entry at givenIndex
+   // and moves the entry at lastIndex to givenIndex.
+   // Precondition: The bag is indexed, and 0 <= givenIndex <= lastIndex.
+   private void removeFromIndex(int givenIndex, int lastIndex)
+   {
+      // Remove givenIndex from the positions of its entry
+      T givenEntry = getEntry(givenIndex);
+      Positions positions = entryIndex.getValue(givenEntry);
+      int movedIndex = positions.remove(slots[givenIndex]);
+      if (movedIndex >= 0)
+         slots[movedIndex] = slots[givenIndex];
+      if (positions.size == 0)
+         entryIndex.remove(givenEntry);
+
+      // The last entry moves to givenIndex
+      if (givenIndex != lastIndex)
+      {
+         Positions lastPositions = entryIndex.getValue(getEntry(lastIndex));
+         lastPositions.indices[slots[lastIndex]] = givenIndex;
+         slots[givenIndex] = slots[lastIndex];
+      } // end if
+   } // end removeFromIndex
    
    // Throws an exception if the client requests a capacity that is too large.
    private void checkCapacity(int capacity)
    {
+      if (capacity < 0)
+         throw new IllegalArgumentException("Capacity cannot be negative.");
       if (capacity > MAX_CAPACITY)
          throw new IllegalStateException("Attempt to create a bag whose capacity exceeds " +
                                          "allowed maximum of " + MAX_CAPACITY);
@@ -222,6 +483,35 @@ public final class ResizableArrayBag<T> implements BagInterface<T>
       if (!integrityOK)
          throw new SecurityException ("ArrayBag object is corrupt.");
    } // end checkintegrity
+
+   // The indices in bag of the occurrences of one entry, in no order.
+   private static class Positions
+   {
+      private int[] indices = new int[1];
+      private int size = 0;
+
+      // Adds an index and returns its location in indices.
+      private int add(int bagIndex)
+      {
+         if (size == indices.length)
+            indices = Arrays.copyOf(indices, 2 * size);
+         indices[size] = bagIndex;
+         size++;
+         return size - 1;
+      } // end add
+
+      // Removes the index at a given location by moving the last index
+      // into its place. Returns the moved index, or -1 if none moved.
+      private int remove(int location)
+      {
+         size--;
+         if (location == size)
+            return -1;
+
+         indices[location] = indices[size];
+         return indices[location];
+      } // end remove
+   } // end Positions
 } // end ResizableArrayBag
 
 /*
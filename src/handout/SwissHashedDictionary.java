@@ -0,0 +1,363 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+   A class that implements the ADT dictionary by using hashing and
+   open addressing with group probing (the "Swiss table" design).
+   The dictionary is unsorted and has distinct search keys.
+   Notes: The table is divided into groups of 8 locations. Each location
+          has a control byte that marks it as empty, removed, or full;
+          a full location's byte holds 7 bits of its key's hash code.
+          The 8 control bytes of a group are packed into one long, so one
+          probe step compares 8 locations against the hash bits at once
+          with a few word-sized (SWAR) operations. equals is called only
+          for locations whose 7 bits match, about 1 time in 128 otherwise.
+          Probes move from group to group with triangular increments, and
+          a search stops at the first group that has an empty location.
+          The table can be 7/8 full.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class SwissHashedDictionary<K, V> implements DictionaryInterface<K, V>
+{
+   // The dictionary:
+   private int numberOfEntries;
+   private static final int DEFAULT_CAPACITY = 14;
+
+   // The hash table:
+   private long[] controls;                 // 8 control bytes per group; length is a power of 2
+   private K[] keys;                        // 8 locations per group
+   private V[] values;                      // Parallel to keys
+   private int growthLeft;                  // Empty locations that can still be filled
+   private static final int GROUP_WIDTH = 8;
+   private static final int MAX_GROUPS = 1 << 27;
+
+   // Control bytes:
+   private static final int EMPTY = 0x80;   // 1000 0000
+   private static final int REMOVED = 0xFE; // 1111 1110
+                                            // Full: 0xxx xxxx, 7 bits of hash code
+   private static final long ALL_EMPTY = 0x8080808080808080L;
+   private static final long LSBS = 0x0101010101010101L; // Low bit of each byte
+   private static final long MSBS = 0x8080808080808080L; // High bit of each byte
+
+   public SwissHashedDictionary()
+   {
+      this(DEFAULT_CAPACITY);
+   } // end default constructor
+
+   /** Creates an empty dictionary.
+       @param initialCapacity  The number of entries the dictionary should
+                               hold before its hash table is enlarged. */
+   public SwissHashedDictionary(int initialCapacity)
+   {
+      if (initialCapacity < DEFAULT_CAPACITY)
+         initialCapacity = DEFAULT_CAPACITY;
+      else if (initialCapacity > maxEntries(MAX_GROUPS))
+         throw new IllegalStateException("Attempt to create a dictionary " +
+                                         "whose capacity is larger than " +
+                                         maxEntries(MAX_GROUPS));
+      int numberOfGroups = 1;
+      while (maxEntries(numberOfGroups) < initialCapacity)
+         numberOfGroups = numberOfGroups + numberOfGroups;
+
+      allocateTable(numberOfGroups);
+      numberOfEntries = 0;
+   } // end constructor
+
+   public V add(K key, V value)
+   {
+      if ((key == null) || (value == null))
+         throw new IllegalArgumentException("Cannot add null to a dictionary.");
+
+      int hash = hash(key);
+      int location = find(key, hash);
+      if (location >= 0)
+      { // Key found; replace its value
+         V oldValue = values[location];
+         values[location] = value;
+         return oldValue;
+      } // end if
+
+      if (growthLeft == 0)
+         rehash(); // Enlarge table, or clear removed locations
+
+      insert(key, value, hash);
+      numberOfEntries++;
+      return null;
+   } // end add
+
+   public V remove(K key)
+   {
+      V removedValue = null;
+      int location = find(key, hash(key));
+      if (location >= 0)
+      {
+         removedValue = values[location];
+         keys[location] = null;
+         values[location] = null;
+         numberOfEntries--;
+
+         // A group that still has an empty location has never been full, so no
+         // probe has passed through it; the location can become empty again.
+         // Otherwise, it must stay marked so that later probes continue.
+         int group = location / GROUP_WIDTH;
+         if (matchEmpty(controls[group]) != 0)
+         {
+            setControl(location, EMPTY);
+            growthLeft++;
+         }
+         else
+            setControl(location, REMOVED);
+      } // end if
+
+      return removedValue;
+   } // end remove
+
+   public V getValue(K key)
+   {
+      int location = find(key, hash(key));
+      if (location >= 0)
+         return values[location];
+      else
+         return null;
+   } // end getValue
+
+   public boolean contains(K key)
+   {
+      return find(key, hash(key)) >= 0;
+   } // end contains
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public int getSize()
+   {
+      return numberOfEntries;
+   } // end getSize
+
+   public void clear()
+   {
+      allocateTable(controls.length);
+      numberOfEntries = 0;
+   } // end clear
+
+   public Iterator<K> getKeyIterator()
+   {
+      return new KeyIterator();
+   } // end getKeyIterator
+
+   public Iterator<V> getValueIterator()
+   {
+      return new ValueIterator();
+   } // end getValueIterator
+
+   // Returns the location of key, or -1 if key is not in the table.
+   private int find(K key, int hash)
+   {
+      int groupMask = controls.length - 1;
+      int group = (hash >>> 7) & groupMask;
+      long pattern = LSBS * (hash & 0x7F);     // 7 hash bits in every byte
+
+      for (int increment = 1; increment <= controls.length; increment++)
+      {
+         long controlWord = controls[group];
+
+         // Check each location whose control byte matches the hash bits
+         long matches = matchByte(controlWord, pattern);
+         while (matches != 0)
+         {
+            int location = group * GROUP_WIDTH + (Long.numberOfTrailingZeros(matches) >>> 3);
+            if (key.equals(keys[location]))
+               return location;
+            matches = matches & (matches - 1); // Clear lowest match
+         } // end while
+
+         // The key would have been placed in this group if it had room
+         if (matchEmpty(controlWord) != 0)
+            return -1;
+
+         group = (group + increment) & groupMask;   // Triangular probing
+      } // end for
+
+      return -1;
+   } // end find
+
+   // Places a new entry in the first empty or removed location of its
+   // probe sequence.
+   // Precondition: key is not in the table, and growthLeft > 0.
+   private void insert(K key, V value, int hash)
+   {
+      int groupMask = controls.length - 1;
+      int group = (hash >>> 7) & groupMask;
+      int increment = 1;
+      long available = matchEmptyOrRemoved(controls[group]);
+      while (available == 0)
+      {
+         group = (group + increment) & groupMask;
+         increment++;
+         available = matchEmptyOrRemoved(controls[group]);
+      } // end while
+
+      int location = group * GROUP_WIDTH + (Long.numberOfTrailingZeros(available) >>> 3);
+      if (getControl(location) == EMPTY)
+         growthLeft--;
+      setControl(location, hash & 0x7F);
+      keys[location] = key;
+      values[location] = value;
+   } // end insert
+
+   // Rehashes the entries into a table twice as large, or into a table of
+   // the same size if most of the used-up locations are only removed ones.
+   private void rehash()
+   {
+      int numberOfGroups = controls.length;
+      if (numberOfEntries > maxEntries(numberOfGroups) / 2)
+      {
+         if (numberOfGroups >= MAX_GROUPS)
+            throw new IllegalStateException("Dictionary has become too large.");
+         numberOfGroups = numberOfGroups + numberOfGroups;
+      } // end if
+
+      long[] oldControls = controls;
+      K[] oldKeys = keys;
+      V[] oldValues = values;
+      allocateTable(numberOfGroups);
+
+      for (int location = 0; location < oldKeys.length; location++)
+      {
+         int control = (int)(oldControls[location / GROUP_WIDTH] >>> (8 * (location % GROUP_WIDTH))) & 0xFF;
+         if (control < EMPTY) // Full
+            insert(oldKeys[location], oldValues[location], hash(oldKeys[location]));
+      } // end for
+   } // end rehash
+
+   private void allocateTable(int numberOfGroups)
+   {
+      controls = new long[numberOfGroups];
+      for (int group = 0; group < numberOfGroups; group++)
+         controls[group] = ALL_EMPTY;
+
+      // The casts are safe because the new arrays contain null entries
+      @SuppressWarnings("unchecked")
+      K[] tempKeys = (K[])new Object[numberOfGroups * GROUP_WIDTH];
+      @SuppressWarnings("unchecked")
+      V[] tempValues = (V[])new Object[numberOfGroups * GROUP_WIDTH];
+      keys = tempKeys;
+      values = tempValues;
+      growthLeft = maxEntries(numberOfGroups);
+   } // end allocateTable
+
+   // Returns the number of entries that a table can hold: 7/8 of its locations.
+   private static int maxEntries(int numberOfGroups)
+   {
+      return numberOfGroups * (GROUP_WIDTH - 1);
+   } // end maxEntries
+
+// -------------------------
+// Operations on a group's 8 control bytes, all at once.
+// Each returns a word whose high bit is set in each selected byte.
+// -------------------------
+
+   // Selects the bytes equal to the corresponding bytes of pattern. Can also
+   // select a byte just above a true match; callers check keys anyway.
+   private static long matchByte(long controlWord, long pattern)
+   {
+      long difference = controlWord ^ pattern; // Zero bytes are matches
+      return (difference - LSBS) & ~difference & MSBS;
+   } // end matchByte
+
+   // Selects the EMPTY bytes: high bit set and bit 1 clear.
+   private static long matchEmpty(long controlWord)
+   {
+      return controlWord & ~(controlWord << 6) & MSBS;
+   } // end matchEmpty
+
+   // Selects the EMPTY and REMOVED bytes: high bit set.
+   private static long matchEmptyOrRemoved(long controlWord)
+   {
+      return controlWord & MSBS;
+   } // end matchEmptyOrRemoved
+
+   private int getControl(int location)
+   {
+      int shift = 8 * (location % GROUP_WIDTH);
+      return (int)(controls[location / GROUP_WIDTH] >>> shift) & 0xFF;
+   } // end getControl
+
+   private void setControl(int location, int control)
+   {
+      int group = location / GROUP_WIDTH;
+      int shift = 8 * (location % GROUP_WIDTH);
+      controls[group] = (controls[group] & ~(0xFFL << shift)) | ((long)control << shift);
+   } // end setControl
+
+   // Spreads the bits of key's hash code (the finalization step of MurmurHash3).
+   private static int hash(Object key)
+   {
+      int h = key.hashCode();
+      h = h ^ (h >>> 16);
+      h = h * 0x85ebca6b;
+      h = h ^ (h >>> 13);
+      h = h * 0xc2b2ae35;
+      h = h ^ (h >>> 16);
+      return h;
+   } // end hash
+
+   // Traverses the full locations of the table.
+   private class TableIterator
+   {
+      private int currentLocation; // Current position in table
+      private int numberLeft;      // Number of entries left in iteration
+
+      private TableIterator()
+      {
+         currentLocation = 0;
+         numberLeft = numberOfEntries;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return numberLeft > 0;
+      } // end hasNext
+
+      // Returns the next full location.
+      int nextLocation()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+
+         // Skip locations that do not contain a current entry
+         while (getControl(currentLocation) >= EMPTY)
+            currentLocation++;
+
+         numberLeft--;
+         currentLocation++;
+         return currentLocation - 1;
+      } // end nextLocation
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      } // end remove
+   } // end TableIterator
+
+   private class KeyIterator extends TableIterator implements Iterator<K>
+   {
+      public K next()
+      {
+         return keys[nextLocation()];
+      } // end next
+   } // end KeyIterator
+
+   private class ValueIterator extends TableIterator implements Iterator<V>
+   {
+      public V next()
+      {
+         return values[nextLocation()];
+      } // end next
+   } // end ValueIterator
+} // end SwissHashedDictionary
@@ -0,0 +1,160 @@
+/**
+   A class of bags whose entries are stored in an unrolled chain of
+   linked nodes, each holding up to 16 entries.
+	The bag is never full.
+   Notes: Like LinkedBag, this bag adds and removes at the beginning of the
+          chain, but only the first node can have fewer than 16 entries.
+          So the bag allocates one node per 16 additions, and contains and
+          getFrequencyOf scan arrays of entries instead of following a link
+          for every entry.
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public final class UnrolledLinkedBag<T> implements BagInterface<T>
+{
+	private UnrolledNode<T> firstNode;  // Reference to first node; the only one that can be partly full
+	private int numberOfEntries;
+
+	public UnrolledLinkedBag()
+	{
+		firstNode = null;
+      numberOfEntries = 0;
+	} // end default constructor
+
+	/** Adds a new entry to this bag.
+	    @param newEntry  The object to be added as a new entry
+	    @return  True if the addition is successful, or false if not. */
+	public boolean add(T newEntry)  	      // OutOfMemoryError possible
+	{
+      if ((firstNode == null) || firstNode.isFull())
+         firstNode = new UnrolledNode<>(firstNode); // New node at beginning of chain
+
+      firstNode.add(newEntry);
+		numberOfEntries++;
+
+		return true;
+	} // end add
+
+	/** Retrieves all entries that are in this bag.
+	    @return  A newly allocated array of all the entries in this bag. */
+	public T[] toArray()
+	{
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] result = (T[])new Object[numberOfEntries]; // Unchecked cast
+
+      int index = 0;
+      UnrolledNode<T> currentNode = firstNode;
+      while (currentNode != null)
+      {
+         for (int nodeIndex = 0; nodeIndex < currentNode.getCount(); nodeIndex++)
+         {
+            result[index] = currentNode.getEntry(nodeIndex);
+            index++;
+         } // end for
+         currentNode = currentNode.getNextNode();
+      } // end while
+
+		return result;
+	} // end toArray
+
+   /** Sees whether this bag is empty.
+       @return  True if this bag is empty, or false if not. */
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   /** Gets the number of entries currently in this bag.
+       @return  The integer number of entries currently in this bag. */
+   public int getCurrentSize()
+   {
+      return numberOfEntries;
+   } // end getCurrentSize
+
+   /** Removes one unspecified entry from this bag, if possible.
+       @return  Either the removed entry, if the removal was successful, or null. */
+   public T remove()
+   {
+      T result = null;
+      if (firstNode != null)
+      {
+         result = firstNode.remove(firstNode.getCount() - 1);
+         if (firstNode.getCount() == 0)
+            firstNode = firstNode.getNextNode(); // Remove empty first node from chain
+         numberOfEntries--;
+      } // end if
+
+      return result;
+   } // end remove
+
+   /** Removes one occurrence of a given entry from this bag, if possible.
+    @param anEntry  The entry to be removed.
+    @return  True if the removal was successful, or false otherwise. */
+   public boolean remove(T anEntry)
+   {
+      boolean result = false;
+      UnrolledNode<T> currentNode = firstNode;
+      while (!result && (currentNode != null))
+      {
+         int index = currentNode.indexOf(anEntry, 0);
+         if (index >= 0)
+         {
+            // Replace located entry with an entry from the first node
+            currentNode.setEntry(index, firstNode.getEntry(firstNode.getCount() - 1));
+            remove();
+            result = true;
+         }
+         else
+            currentNode = currentNode.getNextNode();
+      } // end while
+
+      return result;
+   } // end remove
+
+   /** Removes all entries from this bag. */
+   public void clear()
+   {
+      firstNode = null;
+      numberOfEntries = 0;
+   } // end clear
+
+   /** Counts the number of times a given entry appears in this bag.
+		 @param anEntry  The entry to be counted.
+		 @return  The number of times anEntry appears in this bag. */
+   public int getFrequencyOf(T anEntry)
+   {
+      int frequency = 0;
+      UnrolledNode<T> currentNode = firstNode;
+      while (currentNode != null)
+      {
+         for (int index = 0; index < currentNode.getCount(); index++)
+         {
+            if (anEntry.equals(currentNode.getEntry(index)))
+               frequency++;
+         } // end for
+         currentNode = currentNode.getNextNode();
+      } // end while
+
+      return frequency;
+   } // end getFrequencyOf
+
+	/** Tests whether this bag contains a given entry.
+		 @param anEntry  The entry to locate.
+		 @return  True if the bag contains anEntry, or false otherwise. */
+	public boolean contains(T anEntry)
+	{
+      boolean found = false;
+      UnrolledNode<T> currentNode = firstNode;
+      while (!found && (currentNode != null))
+      {
+         if (currentNode.indexOf(anEntry, 0) >= 0)
+            found = true;
+         else
+            currentNode = currentNode.getNextNode();
+      } // end while
+
+      return found;
+   } // end contains
+} // end UnrolledLinkedBag
@@ -0,0 +1,282 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+/**
+   A class that implements the ADT list by using an unrolled chain of
+   linked nodes, each holding up to 16 entries. The list has an iterator.
+   The class is similar to LList and LinkedListWithIterator.
+   Notes: Adding at the end fills the last node before allocating another.
+          Adding elsewhere splits a full node in two; removing from a node
+          that becomes less than half full takes an entry from, or merges
+          with, the next node. So every node but the last is at least half
+          full, and finding a position follows at most one link per 8
+          entries instead of one per entry.
+          A reference to the last node makes add(newEntry) O(1).
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+public class UnrolledLinkedList<T> implements ListWithIteratorInterface<T>
+{
+   private UnrolledNode<T> firstNode;        // Reference to first node of chain
+   private UnrolledNode<T> lastNode;         // Reference to last node of chain
+   private int numberOfEntries;
+
+   // Set by getNodeAt:
+   private int locatedIndex;                 // Index of the entry within its node
+   private UnrolledNode<T> locatedNodeBefore; // Node before the located node, or null
+
+   private static final int MIN_COUNT = UnrolledNode.CAPACITY / 2; // Least entries in a node other than the last
+
+   public UnrolledLinkedList()
+   {
+      initializeDataFields();
+   } // end default constructor
+
+   public void clear()
+   {
+      initializeDataFields();
+   } // end clear
+
+   public void add(T newEntry)          // OutOfMemoryError possible
+   {
+      if (isEmpty())
+      {
+         firstNode = new UnrolledNode<>();
+         lastNode = firstNode;
+      }
+      else if (lastNode.isFull())       // Add a node to end of nonempty list
+      {
+         UnrolledNode<T> newNode = new UnrolledNode<>();
+         lastNode.setNextNode(newNode);
+         lastNode = newNode;
+      } // end if
+
+      lastNode.add(newEntry);
+      numberOfEntries++;
+   } // end add
+
+   public void add(int givenPosition, T newEntry) // OutOfMemoryError possible
+   {
+      if ((givenPosition >= 1) && (givenPosition <= numberOfEntries + 1))
+      {
+         if (givenPosition == numberOfEntries + 1)
+            add(newEntry);
+         else
+         {
+            UnrolledNode<T> node = getNodeAt(givenPosition);
+            int index = locatedIndex;
+            if (node.isFull())
+            {
+               UnrolledNode<T> newNode = node.split();
+               if (node == lastNode)
+                  lastNode = newNode;
+               if (index > node.getCount())
+               {
+                  index = index - node.getCount();
+                  node = newNode;
+               } // end if
+            } // end if
+
+            node.add(index, newEntry);
+            numberOfEntries++;
+         } // end if
+      }
+      else
+         throw new IndexOutOfBoundsException("Illegal position given to add operation.");
+   } // end add
+
+   public T remove(int givenPosition)
+   {
+      if ((givenPosition >= 1) && (givenPosition <= numberOfEntries))
+      {
+         // Assertion: !isEmpty()
+         UnrolledNode<T> node = getNodeAt(givenPosition);
+         UnrolledNode<T> nodeBefore = locatedNodeBefore;
+         T result = node.remove(locatedIndex);   // Save entry to be removed
+         numberOfEntries--;
+
+         UnrolledNode<T> nodeAfter = node.getNextNode();
+         if (node.getCount() == 0)
+         {
+            // Remove empty node from chain
+            if (nodeBefore == null)
+               firstNode = nodeAfter;
+            else
+               nodeBefore.setNextNode(nodeAfter);
+            if (node == lastNode)
+               lastNode = nodeBefore;
+         }
+         else if ((node.getCount() < MIN_COUNT) && (nodeAfter != null))
+         {
+            if (node.getCount() + nodeAfter.getCount() <= UnrolledNode.CAPACITY)
+            {
+               node.mergeWithNext();
+               if (nodeAfter == lastNode)
+                  lastNode = node;
+            }
+            else
+               node.add(nodeAfter.remove(0));    // Borrow first entry of next node
+         } // end if
+
+         return result;                          // Return removed entry
+      }
+      else
+         throw new IndexOutOfBoundsException("Illegal position given to remove operation.");
+   } // end remove
+
+   public T replace(int givenPosition, T newEntry)
+   {
+      if ((givenPosition >= 1) && (givenPosition <= numberOfEntries))
+      {
+         // Assertion: !isEmpty()
+         UnrolledNode<T> desiredNode = getNodeAt(givenPosition);
+         T originalEntry = desiredNode.getEntry(locatedIndex);
+         desiredNode.setEntry(locatedIndex, newEntry);
+         return originalEntry;
+      }
+      else
+         throw new IndexOutOfBoundsException("Illegal position given to replace operation.");
+   } // end replace
+
+   public T getEntry(int givenPosition)
+   {
+      if ((givenPosition >= 1) && (givenPosition <= numberOfEntries))
+      {
+         // Assertion: !isEmpty()
+         return getNodeAt(givenPosition).getEntry(locatedIndex);
+      }
+      else
+         throw new IndexOutOfBoundsException("Illegal position given to getEntry operation.");
+   } // end getEntry
+
+   public T[] toArray()
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] result = (T[])new Object[numberOfEntries];
+
+      int index = 0;
+      UnrolledNode<T> currentNode = firstNode;
+      while (currentNode != null)
+      {
+         for (int nodeIndex = 0; nodeIndex < currentNode.getCount(); nodeIndex++)
+         {
+            result[index] = currentNode.getEntry(nodeIndex);
+            index++;
+         } // end for
+         currentNode = currentNode.getNextNode();
+      } // end while
+
+      return result;
+   } // end toArray
+
+   public boolean contains(T anEntry)
+   {
+      boolean found = false;
+      UnrolledNode<T> currentNode = firstNode;
+
+      while (!found && (currentNode != null))
+      {
+         if (currentNode.indexOf(anEntry, 0) >= 0)
+            found = true;
+         else
+            currentNode = currentNode.getNextNode();
+      } // end while
+
+      return found;
+   } // end contains
+
+   public int getLength()
+   {
+      return numberOfEntries;
+   } // end getLength
+
+   public boolean isEmpty()
+   {
+      return numberOfEntries == 0;
+   } // end isEmpty
+
+   public Iterator<T> iterator()
+   {
+      return new IteratorForUnrolledList();
+   } // end iterator
+
+   public Iterator<T> getIterator()
+   {
+      return iterator();
+   } // end getIterator
+
+   // Initializes the class's data fields to indicate an empty list.
+   private void initializeDataFields()
+   {
+      firstNode = null;
+      lastNode = null;
+      numberOfEntries = 0;
+   } // end initializeDataFields
+
+   // Returns a reference to the node that contains the entry at a given
+   // position, and sets locatedIndex and locatedNodeBefore.
+   // Precondition: The chain is not empty;
+   //               1 <= givenPosition <= numberOfEntries.
+   private UnrolledNode<T> getNodeAt(int givenPosition)
+   {
+      UnrolledNode<T> nodeBefore = null;
+      UnrolledNode<T> currentNode = firstNode;
+      int index = givenPosition - 1;
+
+      // Skip whole nodes until the one containing the position
+      while (index >= currentNode.getCount())
+      {
+         index = index - currentNode.getCount();
+         nodeBefore = currentNode;
+         currentNode = currentNode.getNextNode();
+      } // end while
+
+      locatedIndex = index;
+      locatedNodeBefore = nodeBefore;
+      return currentNode;
+   } // end getNodeAt
+
+   private class IteratorForUnrolledList implements Iterator<T>
+   {
+      private UnrolledNode<T> nextNode; // Node containing next entry in iteration
+      private int nextIndex;            // Index of next entry in nextNode
+
+      private IteratorForUnrolledList()
+      {
+         nextNode = firstNode;
+         nextIndex = 0;
+      } // end default constructor
+
+      public boolean hasNext()
+      {
+         return nextNode != null;
+      } // end hasNext
+
+      public T next()
+      {
+         if (hasNext())
+         {
+            T result = nextNode.getEntry(nextIndex);
+            nextIndex++;
+            if (nextIndex == nextNode.getCount())
+            {
+               nextNode = nextNode.getNextNode(); // Advance to next node
+               nextIndex = 0;
+            } // end if
+
+            return result;
+         }
+         else
+            throw new NoSuchElementException("Illegal call to next(); " +
+                                             "iterator is after end of list.");
+      } // end next
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException("remove() is not " +
+                                                 "supported by this iterator");
+      } // end remove
+   } // end IteratorForUnrolledList
+} // end UnrolledLinkedList
@@ -0,0 +1,87 @@
+/**
+ A class that implements a queue of objects by using an unrolled chain
+ of linked nodes, each holding up to 16 entries, that has both head and
+ tail references.
+ Notes: Entries are added after the last entry in the last node and
+        removed from the first node, which keeps the index of its front
+        entry, so neither operation shifts entries. A node is allocated
+        once per 16 enqueues and released once the last of its entries
+        is dequeued.
+
+ @author Frank M. Carrano
+ @author Timothy M. Henry
+ @version 5.0
+ */
+public final class UnrolledLinkedQueue<T> implements QueueInterface<T>
+{
+   private UnrolledNode<T> firstNode; // References node at front of queue
+   private UnrolledNode<T> lastNode;  // References node at back of queue
+   private int frontIndex;            // Index of front entry in firstNode
+
+   public UnrolledLinkedQueue()
+   {
+      firstNode = null;
+      lastNode = null;
+      frontIndex = 0;
+   } // end default constructor
+
+   public void enqueue(T newEntry)
+   {
+      if (isEmpty())
+      {
+         firstNode = new UnrolledNode<>();
+         lastNode = firstNode;
+         frontIndex = 0;
+      }
+      else if (lastNode.isFull())
+      {
+         UnrolledNode<T> newNode = new UnrolledNode<>();
+         lastNode.setNextNode(newNode);
+         lastNode = newNode;
+      } // end if
+
+      lastNode.add(newEntry);
+   } // end enqueue
+
+   public T getFront()
+   {
+      if (isEmpty())
+         throw new EmptyQueueException();
+      else
+         return firstNode.getEntry(frontIndex);
+   } // end getFront
+
+   public T dequeue()
+   {
+      T front = getFront();  // Might throw EmptyQueueException
+                             // Assertion: firstNode != null
+      firstNode.setEntry(frontIndex, null);
+      frontIndex++;
+
+      if (frontIndex == firstNode.getCount())
+      {
+         // The first node is used up
+         if (firstNode == lastNode)
+            clear();                   // Queue is now empty
+         else
+         {
+            firstNode = firstNode.getNextNode();
+            frontIndex = 0;
+         } // end if
+      } // end if
+
+      return front;
+   } // end dequeue
+
+   public boolean isEmpty()
+   {
+      return (firstNode == null) && (lastNode == null);
+   } // end isEmpty
+
+   public void clear()
+   {
+      firstNode = null;
+      lastNode = null;
+      frontIndex = 0;
+   } // end clear
+} // end UnrolledLinkedQueue
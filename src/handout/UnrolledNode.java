@@ -0,0 +1,141 @@
+/**
+   A class of nodes for an unrolled chain: each node holds up to CAPACITY
+   entries in an array, in positions 0 through getCount() - 1.
+   Notes: A chain of n entries needs about n / CAPACITY nodes rather than
+          n, and a traversal reads each node's entries from one array, so
+          it follows a link only once per CAPACITY entries.
+          The classes that use these nodes decide how full to keep them.
+
+   @author Frank M. Carrano
+   @author Timothy M. Henry
+   @version 5.0
+*/
+class UnrolledNode<T>
+{
+   static final int CAPACITY = 16;
+
+   private final T[] entries;
+   private int count;               // Number of entries in use
+   private UnrolledNode<T> next;    // Link to next node
+
+   UnrolledNode()
+   {
+      this(null);
+   } // end default constructor
+
+   UnrolledNode(UnrolledNode<T> nextNode)
+   {
+      // The cast is safe because the new array contains null entries
+      @SuppressWarnings("unchecked")
+      T[] tempEntries = (T[])new Object[CAPACITY]; // Unchecked cast
+      entries = tempEntries;
+      count = 0;
+      next = nextNode;
+   } // end constructor
+
+   int getCount()
+   {
+      return count;
+   } // end getCount
+
+   boolean isFull()
+   {
+      return count == CAPACITY;
+   } // end isFull
+
+   // Precondition: 0 <= index < getCount().
+   T getEntry(int index)
+   {
+      return entries[index];
+   } // end getEntry
+
+   // Precondition: 0 <= index < getCount().
+   void setEntry(int index, T newEntry)
+   {
+      entries[index] = newEntry;
+   } // end setEntry
+
+   // Adds an entry after the last one.
+   // Precondition: !isFull().
+   void add(T newEntry)
+   {
+      entries[count] = newEntry;
+      count++;
+   } // end add
+
+   // Inserts an entry at a given index, shifting later entries up.
+   // Precondition: !isFull() and 0 <= index <= getCount().
+   void add(int index, T newEntry)
+   {
+      System.arraycopy(entries, index, entries, index + 1, count - index);
+      entries[index] = newEntry;
+      count++;
+   } // end add
+
+   // Removes and returns the entry at a given index, shifting later
+   // entries down.
+   // Precondition: 0 <= index < getCount().
+   T remove(int index)
+   {
+      T result = entries[index];
+      count--;
+      System.arraycopy(entries, index + 1, entries, index, count - index);
+      entries[count] = null;
+      return result;
+   } // end remove
+
+   // Removes all entries.
+   void clear()
+   {
+      for (int index = 0; index < count; index++)
+         entries[index] = null;
+      count = 0;
+   } // end clear
+
+   // Returns the index of the first entry at or after start that equals
+   // anEntry, or -1 if there is none.
+   int indexOf(T anEntry, int start)
+   {
+      for (int index = start; index < count; index++)
+      {
+         if (anEntry.equals(entries[index]))
+            return index;
+      } // end for
+
+      return -1;
+   } // end indexOf
+
+   // Moves the upper half of this node's entries into a new node that
+   // follows this one, and returns the new node.
+   UnrolledNode<T> split()
+   {
+      UnrolledNode<T> newNode = new UnrolledNode<>(next);
+      int half = count / 2;
+      newNode.count = count - half;
+      System.arraycopy(entries, half, newNode.entries, 0, newNode.count);
+      for (int index = half; index < count; index++)
+         entries[index] = null;
+      count = half;
+      next = newNode;
+      return newNode;
+   } // end split
+
+   // Moves all entries of the next node into this one and unlinks it.
+   // Precondition: The next node exists, and its entries fit here.
+   void mergeWithNext()
+   {
+      System.arraycopy(next.entries, 0, entries, count, next.count);
+      count = count + next.count;
+      next = next.next;
+   } // end mergeWithNext
+
+   UnrolledNode<T> getNextNode()
+   {
+      return next;
+   } // end getNextNode
+
+   void setNextNode(UnrolledNode<T> nextNode)
+   {
+      next = nextNode;
+   } // end setNextNode
+} // end UnrolledNode